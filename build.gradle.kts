@@ -8,21 +8,42 @@ group = "com.example"
 version = "0.0.1-SNAPSHOT"
 
 java {
-    sourceCompatibility = JavaVersion.VERSION_17
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
 }
 
 repositories {
     mavenCentral()
 }
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+val jmhRuntimeOnly: Configuration by configurations.getting {
+    extendsFrom(configurations.runtimeOnly.get())
+}
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
+    // Caching
+    implementation("com.github.ben-manes.caffeine:caffeine")
 
     // SQLite
     implementation("org.xerial:sqlite-jdbc:3.44.1.0")
+    implementation("org.flywaydb:flyway-core")
     implementation("org.hibernate.orm:hibernate-community-dialects:6.4.1.Final")
 
     // JWT
@@ -39,8 +60,72 @@ dependencies {
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
+
+    // Benchmarks
+    jmhImplementation("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+    jmhImplementation("org.springframework:spring-test")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+val gitCommit: Provider<String> = providers.exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+
+// Runs from the exploded classpath rather than a shaded jar so Spring Boot's auto-configuration
+// metadata files are not merged away. Results land in build/results/jmh/<commit>.json.
+// Narrow the run with -Pjmh.includes=<regex>.
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks and writes JSON results per commit."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultsDir = layout.buildDirectory.dir("results/jmh")
+    val includes = providers.gradleProperty("jmh.includes").orElse("")
+    doFirst {
+        val dir = resultsDir.get().asFile.apply { mkdirs() }
+        args("-rf", "json", "-rff", dir.resolve("${gitCommit.get()}.json").absolutePath)
+        includes.get().takeIf { it.isNotBlank() }?.let { args(it) }
+    }
+}
+
+// Platform vs virtual request threads under many concurrent connections.
+// Tune with -Pconnections=<n> -Pwarmup=<seconds> -Pduration=<seconds>.
+tasks.register<JavaExec>("compareThreadModes") {
+    group = "benchmark"
+    description = "Load-tests the feed with platform and with virtual request threads."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.example.instagram.benchmark.ThreadModeComparison")
+
+    val resultsDir = layout.buildDirectory.dir("results/threads")
+    val connections = providers.gradleProperty("connections").orElse("1000")
+    val warmup = providers.gradleProperty("warmup").orElse("10")
+    val duration = providers.gradleProperty("duration").orElse("30")
+    doFirst {
+        val dir = resultsDir.get().asFile.apply { mkdirs() }
+        args(connections.get(), warmup.get(), duration.get(),
+            dir.resolve("${gitCommit.get()}.json").absolutePath)
+    }
+}
+
+// Table size and insert throughput with random UUID keys vs time-ordered keys.
+// Tune with -Pposts=<n> -PlikesPerPost=<n>.
+tasks.register<JavaExec>("compareIdLayouts") {
+    group = "benchmark"
+    description = "Compares SQLite table size and insert throughput for UUID and time-ordered ids."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.example.instagram.benchmark.IdLayoutComparison")
+
+    val resultsDir = layout.buildDirectory.dir("results/ids")
+    val posts = providers.gradleProperty("posts").orElse("200000")
+    val likesPerPost = providers.gradleProperty("likesPerPost").orElse("5")
+    doFirst {
+        val dir = resultsDir.get().asFile.apply { mkdirs() }
+        args(posts.get(), likesPerPost.get(), dir.resolve("${gitCommit.get()}.json").absolutePath)
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.InstagramApplication;
+import com.example.instagram.model.Post;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application against a throwaway SQLite file and seeds it.
+final class BenchmarkApp implements AutoCloseable {
+
+    private static final int SEED_CHUNK = 1000;
+
+    private final Path dbFile;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApp(Path dbFile, ConfigurableApplicationContext context) {
+        this.dbFile = dbFile;
+        this.context = context;
+    }
+
+    static BenchmarkApp start(String... properties) throws IOException {
+        Path dbFile = Files.createTempFile("instagram-bench-", ".db");
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:sqlite:" + dbFile + "?journal_mode=WAL&synchronous=NORMAL&busy_timeout=5000",
+                "spring.jpa.show-sql=false",
+                "server.port=0",
+                "logging.level.root=WARN",
+                "counters.reconcile.initial-delay-ms=86400000",
+                "rate-limit.enabled=false",
+                "load-shedding.enabled=false"
+        ));
+        all.addAll(List.of(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InstagramApplication.class)
+                .properties(all.toArray(String[]::new))
+                .run();
+        return new BenchmarkApp(dbFile, context);
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Seeds users and posts, puts every post on the viewer's timeline, likes roughly one post in ten per user
+    // and brings the stored counters in line with the seeded rows. Returns the viewer.
+    User seed(int users, int posts) {
+        UserRepository userRepository = bean(UserRepository.class);
+        PostRepository postRepository = bean(PostRepository.class);
+        TransactionTemplate tx = bean(TransactionTemplate.class);
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+
+        List<User> authors = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < users; i++) {
+                authors.add(userRepository.save(User.builder()
+                        .username("bench_user_" + i)
+                        .email("bench" + i + "@example.com")
+                        .passwordHash("$2a$10$abcdefghijklmnopqrstuuM3cN2b2Q1QFpR1QbQH2o1Y7l2mO1fF6")
+                        .fullName("Bench User " + i)
+                        .build()));
+            }
+        });
+
+        for (int start = 0; start < posts; start += SEED_CHUNK) {
+            int end = Math.min(posts, start + SEED_CHUNK);
+            int from = start;
+            tx.executeWithoutResult(status -> {
+                for (int i = from; i < end; i++) {
+                    postRepository.save(Post.builder()
+                            .author(authors.get(i % authors.size()))
+                            .imageUrl("https://example.com/images/" + i + ".jpg")
+                            .caption("Benchmark caption number " + i + " #bench")
+                            .build());
+                }
+            });
+        }
+
+        User viewer = authors.get(0);
+        tx.executeWithoutResult(status -> {
+            jdbc.update("INSERT OR IGNORE INTO timelines (user_id, post_id, post_created_at) " +
+                    "SELECT ?, id, created_at FROM posts", viewer.getId());
+            jdbc.update("INSERT OR IGNORE INTO likes (user_id, post_id, created_at) " +
+                    "SELECT u.id, p.id, p.created_at FROM users u, posts p WHERE abs(random()) % 10 = 0");
+            jdbc.update("UPDATE posts SET " +
+                    "likes_count = (SELECT COUNT(*) FROM likes l WHERE l.post_id = posts.id), " +
+                    "comments_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id)");
+        });
+        return viewer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+}
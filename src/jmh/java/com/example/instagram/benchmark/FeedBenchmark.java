@@ -0,0 +1,61 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.service.PostService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedBenchmark {
+
+    @Param({"1000", "50000"})
+    private int tableSize;
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    // With the post cache disabled every call hydrates from SQLite.
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private BenchmarkApp app;
+    private PostService postService;
+    private User viewer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        long cacheSize = cached ? 100000 : 0;
+        app = BenchmarkApp.start("cache.posts.max-size=" + cacheSize, "cache.liked.max-size=" + cacheSize);
+        viewer = app.seed(100, tableSize);
+        postService = app.bean(PostService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public PageResponse<PostResponse> offsetFirstPage() {
+        return postService.getFeed(0, pageSize, viewer);
+    }
+
+    @Benchmark
+    public PageResponse<PostResponse> offsetTenthPage() {
+        return postService.getFeed(9, pageSize, viewer);
+    }
+
+    @Benchmark
+    public CursorPageResponse<PostResponse> cursorFirstPage() {
+        return postService.getFeed("", pageSize, viewer);
+    }
+}
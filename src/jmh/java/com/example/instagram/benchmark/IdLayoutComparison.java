@@ -0,0 +1,194 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.model.TimeOrderedIdGenerator;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Inserts the same posts and likes into SQLite files that differ only in how ids are generated and
+// stored, then reports insert throughput and the resulting size of each table and primary-key index.
+// The third layout stores the same time-ordered ids as 16-byte BLOBs, which sort the same way.
+//
+// The application keeps ids as 26-character TEXT even though the BLOB layout saves 10 bytes in every
+// key and every column that references one. Ids travel as strings through the API, page cursors,
+// caches, events and pre-serialized JSON, so BLOB keys would need a conversion on each of those paths
+// and on every id column Hibernate maps. Rows would also stop being readable in the sqlite3 shell.
+// Databases that still hold UUIDs are being rewritten to TEXT ids by TimeOrderedIdMigration, so
+// switching to BLOBs would mean a second rewrite of every referencing column. Run this comparison
+// again if key size starts to dominate the database.
+//
+// Usage: IdLayoutComparison <posts> <likesPerPost> <resultFile>
+public final class IdLayoutComparison {
+
+    private static final int USERS = 1000;
+    private static final int BATCH = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int posts = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int likesPerPost = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path resultFile = Path.of(args.length > 2 ? args[2] : "build/results/ids/latest.json");
+
+        List<Result> results = List.of(
+                run("uuid", "TEXT", () -> UUID.randomUUID().toString(), posts, likesPerPost),
+                run("time-ordered", "TEXT", TimeOrderedIdGenerator::next, posts, likesPerPost),
+                run("time-ordered-blob", "BLOB", () -> toBytes(TimeOrderedIdGenerator.next()), posts, likesPerPost));
+
+        results.forEach(result -> System.out.println(result.summary()));
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        Files.writeString(resultFile, toJson(posts, likesPerPost, results));
+    }
+
+    private static Result run(String layout, String idType, Supplier<Object> ids, int posts, int likesPerPost)
+            throws Exception {
+        Path dbFile = Files.createTempFile("instagram-ids-" + layout + "-", ".db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE posts (id " + idType + " PRIMARY KEY, author_id " + idType +
+                        " NOT NULL, caption TEXT, created_at INTEGER NOT NULL)");
+                statement.execute("CREATE TABLE likes (user_id " + idType + " NOT NULL, post_id " + idType +
+                        " NOT NULL, created_at INTEGER NOT NULL, PRIMARY KEY (user_id, post_id))");
+            }
+            connection.setAutoCommit(false);
+
+            List<Object> userIds = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                userIds.add(ids.get());
+            }
+
+            List<Object> postIds = new ArrayList<>(posts);
+            long postsStarted = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO posts (id, author_id, caption, created_at) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < posts; i++) {
+                    Object id = ids.get();
+                    postIds.add(id);
+                    insert.setObject(1, id);
+                    insert.setObject(2, userIds.get(i % USERS));
+                    insert.setString(3, "Caption number " + i);
+                    insert.setLong(4, System.currentTimeMillis());
+                    insert.addBatch();
+                    if ((i + 1) % BATCH == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            double postsPerSecond = posts / seconds(postsStarted);
+
+            // Likes mostly land on recent posts, from any user.
+            int likes = posts * likesPerPost;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long likesStarted = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT OR IGNORE INTO likes (user_id, post_id, created_at) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < likes; i++) {
+                    int newest = i / likesPerPost;
+                    insert.setObject(1, userIds.get(random.nextInt(USERS)));
+                    insert.setObject(2, postIds.get(Math.max(0, newest - random.nextInt(100))));
+                    insert.setLong(3, System.currentTimeMillis());
+                    insert.addBatch();
+                    if ((i + 1) % BATCH == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            double likesPerSecond = likes / seconds(likesStarted);
+
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+            return new Result(layout, postsPerSecond, likesPerSecond, Files.size(dbFile), objectSizes(connection));
+        } finally {
+            Files.deleteIfExists(dbFile);
+            Files.deleteIfExists(Path.of(dbFile + "-wal"));
+            Files.deleteIfExists(Path.of(dbFile + "-shm"));
+        }
+    }
+
+    // Needs SQLite's dbstat table; returns nothing if the driver was built without it.
+    private static Map<String, Long> objectSizes(Connection connection) {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT name, SUM(pgsize) AS bytes FROM dbstat GROUP BY name ORDER BY name")) {
+            while (rows.next()) {
+                sizes.put(rows.getString("name"), rows.getLong("bytes"));
+            }
+        } catch (SQLException e) {
+            System.err.println("dbstat unavailable, reporting file sizes only: " + e.getMessage());
+        }
+        return sizes;
+    }
+
+    // The 128 bits behind a time-ordered id, big-endian, so BLOBs compare in the same order as the text.
+    private static byte[] toBytes(String id) {
+        String alphabet = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < id.length(); i++) {
+            high = (high << 5) | (low >>> 59);
+            low = (low << 5) | alphabet.indexOf(id.charAt(i));
+        }
+        return ByteBuffer.allocate(16).putLong(high).putLong(low).array();
+    }
+
+    private static double seconds(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000_000.0;
+    }
+
+    private static String toJson(int posts, int likesPerPost, List<Result> results) {
+        StringBuilder json = new StringBuilder("{\"posts\":").append(posts)
+                .append(",\"likesPerPost\":").append(likesPerPost)
+                .append(",\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"layout\":\"").append(result.layout()).append('"')
+                    .append(",\"postInsertsPerSecond\":").append(result.postsPerSecond())
+                    .append(",\"likeInsertsPerSecond\":").append(result.likesPerSecond())
+                    .append(",\"fileBytes\":").append(result.fileBytes())
+                    .append(",\"objectBytes\":{");
+            int j = 0;
+            for (Map.Entry<String, Long> entry : result.objectBytes().entrySet()) {
+                json.append(j++ == 0 ? "" : ",")
+                        .append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            }
+            json.append("}}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private record Result(String layout, double postsPerSecond, double likesPerSecond, long fileBytes,
+                          Map<String, Long> objectBytes) {
+
+        String summary() {
+            StringBuilder summary = new StringBuilder(String.format(
+                    "%-17s posts %9.0f/s  likes %9.0f/s  file %,d bytes",
+                    layout, postsPerSecond, likesPerSecond, fileBytes));
+            objectBytes.forEach((name, bytes) -> summary.append(String.format("%n    %-32s %,d bytes", name, bytes)));
+            return summary.toString();
+        }
+    }
+}
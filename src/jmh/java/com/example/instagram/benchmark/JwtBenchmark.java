@@ -0,0 +1,71 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.config.JwtAuthFilter;
+import com.example.instagram.model.User;
+import com.example.instagram.service.JwtService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private BenchmarkApp app;
+    private JwtService jwtService;
+    private JwtAuthFilter jwtAuthFilter;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        app = BenchmarkApp.start();
+        user = app.seed(1, 0);
+        jwtService = app.bean(JwtService.class);
+        jwtAuthFilter = app.bean(JwtAuthFilter.class);
+        token = jwtService.generateToken(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public Authentication authFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            // A filter that rejects the token would otherwise be measured as a fast success.
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated()) {
+                throw new IllegalStateException("Token was not accepted");
+            }
+            return authentication;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
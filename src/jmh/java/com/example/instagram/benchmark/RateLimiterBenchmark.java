@@ -0,0 +1,42 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cost of the per-request bucket check with many threads hitting a shared set of clients. The budgets
+// are high enough that nothing is refused, so every call takes the CAS path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @Param({"16", "10000"})
+    private int clients;
+
+    private RateLimiter rateLimiter;
+    private String[] clientKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rateLimiter = new RateLimiter(new SimpleMeterRegistry(),
+                1e9, 1_000_000, 1e9, 1_000_000, 1e9, 1_000_000, 600, 100_000);
+        clientKeys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientKeys[i] = "user-" + i;
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        String clientKey = clientKeys[ThreadLocalRandom.current().nextInt(clients)];
+        return rateLimiter.tryAcquire(RateLimiter.Budget.READ, clientKey);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.config.PostResponseSerializer;
+import com.example.instagram.dto.response.CommentResponse;
+import com.example.instagram.dto.response.PageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.Comment;
+import com.example.instagram.model.Post;
+import com.example.instagram.model.User;
+import com.example.instagram.service.JsonFragmentCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// DTO mapping and JSON serialization, without Spring or a database. serializePostPageWithFragments
+// uses the cached-fragment serializer with a warm cache; setUp checks it writes the same bytes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper fragmentMapper;
+    private User author;
+    private Post post;
+    private Comment comment;
+    private PageResponse<PostResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        JsonFragmentCache fragments = new JsonFragmentCache(new SimpleMeterRegistry(), 20_000, 20_000);
+        fragmentMapper = objectMapper.copy().registerModule(PostResponseSerializer.module(fragments));
+
+        author = User.builder()
+                .id("0b6f7c1e-3a52-4c8e-9d4f-2a1b3c4d5e6f")
+                .username("john_doe")
+                .email("john@example.com")
+                .fullName("John Doe")
+                .avatarUrl("https://example.com/avatars/john.jpg")
+                .createdAt(Instant.now())
+                .build();
+        post = Post.builder()
+                .id("7e3f1a2b-9c8d-4e5f-a6b7-c8d9e0f1a2b3")
+                .author(author)
+                .imageUrl("https://example.com/images/sunset.jpg")
+                .caption("Beautiful sunset over the bay #sunset #nofilter")
+                .likesCount(42)
+                .commentsCount(5)
+                .createdAt(Instant.now())
+                .build();
+        comment = Comment.builder()
+                .id("1a2b3c4d-5e6f-4a7b-8c9d-0e1f2a3b4c5d")
+                .post(post)
+                .author(author)
+                .text("Amazing photo!")
+                .createdAt(Instant.now())
+                .build();
+
+        List<PostResponse> content = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Post pagePost = Post.builder()
+                    .id(post.getId() + "-" + i)
+                    .author(author)
+                    .imageUrl(post.getImageUrl())
+                    .caption(post.getCaption())
+                    .createdAt(post.getCreatedAt())
+                    .build();
+            content.add(PostResponse.from(pagePost, author, 42 + i, 5, i % 2 == 0));
+        }
+        page = PageResponse.<PostResponse>builder()
+                .content(content)
+                .page(0)
+                .totalPages(10)
+                .build();
+
+        if (!Arrays.equals(serializePostPage(), serializePostPageWithFragments())) {
+            throw new IllegalStateException("Fragment serializer output differs from Jackson's");
+        }
+    }
+
+    @Benchmark
+    public PostResponse postResponseFrom() {
+        return PostResponse.from(post, author, post.getLikesCount(), post.getCommentsCount(), true);
+    }
+
+    @Benchmark
+    public CommentResponse commentResponseFrom() {
+        return CommentResponse.from(comment, author);
+    }
+
+    @Benchmark
+    public byte[] serializePostPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePostPageWithFragments() throws Exception {
+        return fragmentMapper.writeValueAsBytes(page);
+    }
+}
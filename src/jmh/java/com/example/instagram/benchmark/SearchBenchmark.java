@@ -0,0 +1,125 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.TimeOrderedIdGenerator;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.SearchHit;
+import com.example.instagram.service.SearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+// Caption search over a generated corpus: the FTS5 index (match only, and a full hydrated page) against
+// the LIKE '%word%' scan it replaces. Caption words follow a skewed distribution, so "common" matches a
+// large share of posts and "rare" only a few.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 5000;
+    private static final int WORDS_PER_CAPTION = 8;
+    private static final int INSERT_CHUNK = 10000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    private int corpusSize;
+
+    @Param({"common", "rare", "twoWords"})
+    private String query;
+
+    private BenchmarkApp app;
+    private SearchService searchService;
+    private PostRepository postRepository;
+    private JdbcTemplate jdbc;
+    private User viewer;
+    private String text;
+    private String matchQuery;
+    private String firstLikePattern;
+    private String lastLikePattern;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        app = BenchmarkApp.start();
+        viewer = app.seed(100, 1);
+        searchService = app.bean(SearchService.class);
+        postRepository = app.bean(PostRepository.class);
+        jdbc = app.bean(JdbcTemplate.class);
+        seedCaptions(app.bean(TransactionTemplate.class));
+
+        text = switch (query) {
+            case "common" -> word(0);
+            case "rare" -> word(VOCABULARY - 1);
+            default -> word(3) + " " + word(40);
+        };
+        matchQuery = "\"" + text.replace(" ", "\" \"") + "\"";
+        String[] words = text.split(" ");
+        firstLikePattern = "%" + words[0] + " %";
+        lastLikePattern = "%" + words[words.length - 1] + " %";
+    }
+
+    // Copies the seeded post's author and timestamps so rows hydrate like ones the application wrote.
+    private void seedCaptions(TransactionTemplate tx) {
+        String template = jdbc.queryForObject("SELECT id FROM posts LIMIT 1", String.class);
+        Random random = new Random(42);
+
+        for (int start = 0; start < corpusSize; start += INSERT_CHUNK) {
+            List<Object[]> rows = new ArrayList<>(INSERT_CHUNK);
+            for (int i = start; i < Math.min(corpusSize, start + INSERT_CHUNK); i++) {
+                rows.add(new Object[]{TimeOrderedIdGenerator.next(), caption(random), template});
+            }
+            tx.executeWithoutResult(status -> jdbc.batchUpdate(
+                    "INSERT INTO posts (id, author_id, image_url, caption, likes_count, comments_count, created_at) " +
+                            "SELECT ?, author_id, image_url, ?, 0, 0, created_at FROM posts WHERE id = ?",
+                    rows));
+        }
+    }
+
+    // Every word is followed by a space, so LIKE '%word %' matches whole words only.
+    private static String caption(Random random) {
+        StringJoiner caption = new StringJoiner(" ", "", " #bench");
+        for (int i = 0; i < WORDS_PER_CAPTION; i++) {
+            // Squaring a uniform sample skews picks towards the start of the vocabulary.
+            double skewed = random.nextDouble() * random.nextDouble();
+            caption.add(word((int) (skewed * VOCABULARY)));
+        }
+        return caption.toString();
+    }
+
+    private static String word(int index) {
+        return "word" + index;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public List<SearchHit> ftsMatch() {
+        return postRepository.searchCaptions(matchQuery, PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public CursorPageResponse<PostResponse> ftsFirstPage() {
+        return searchService.searchPosts(text, "", PAGE_SIZE, viewer);
+    }
+
+    @Benchmark
+    public List<String> likeScan() {
+        return jdbc.queryForList("SELECT id FROM posts WHERE caption LIKE ? AND caption LIKE ? " +
+                        "AND deleted_at IS NULL LIMIT ?",
+                String.class, firstLikePattern, lastLikePattern, PAGE_SIZE + 1);
+    }
+}
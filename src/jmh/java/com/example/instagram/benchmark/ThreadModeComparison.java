@@ -0,0 +1,150 @@
+package com.example.instagram.benchmark;
+
+import com.example.instagram.model.User;
+import com.example.instagram.service.JwtService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load test: boots the application once per thread mode and keeps a fixed number of
+// connections busy with authenticated feed reads, then reports throughput and latency percentiles.
+// JMH measures a single caller; this measures what the server does with many of them.
+//
+// Usage: ThreadModeComparison <connections> <warmupSeconds> <durationSeconds> <resultFile>
+public final class ThreadModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int warmupSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Path resultFile = Path.of(args.length > 3 ? args[3] : "build/results/threads/latest.json");
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            results.add(run(virtual, connections, warmupSeconds, durationSeconds));
+        }
+
+        results.forEach(result -> System.out.println(result.summary()));
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        Files.writeString(resultFile, toJson(connections, durationSeconds, results));
+    }
+
+    private static Result run(boolean virtual, int connections, int warmupSeconds, int durationSeconds)
+            throws Exception {
+        try (BenchmarkApp app = BenchmarkApp.start(
+                "spring.threads.virtual.enabled=" + virtual,
+                "server.tomcat.max-connections=" + (connections * 2),
+                "server.tomcat.accept-count=" + connections)) {
+            User viewer = app.seed(100, 5000);
+            String token = app.bean(JwtService.class).generateToken(viewer);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + app.port() + "/api/v1/posts?page=0&size=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+
+            load(request, connections, warmupSeconds);
+            return new Result(virtual ? "virtual" : "platform", durationSeconds,
+                    load(request, connections, durationSeconds));
+        }
+    }
+
+    private static Samples load(HttpRequest request, int connections, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clients)
+                     .build()) {
+            List<Future<long[]>> workers = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                workers.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            List<long[]> perWorker = new ArrayList<>(connections);
+            for (Future<long[]> worker : workers) {
+                perWorker.add(worker.get());
+            }
+            long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Samples(all, errors.get());
+        }
+    }
+
+    private static String toJson(int connections, int durationSeconds, List<Result> results) {
+        StringBuilder json = new StringBuilder("{\"connections\":").append(connections)
+                .append(",\"durationSeconds\":").append(durationSeconds)
+                .append(",\"results\":[");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"mode\":\"").append(result.mode()).append('"')
+                    .append(",\"requestsPerSecond\":").append(result.throughput())
+                    .append(",\"p50Millis\":").append(result.samples().percentileMillis(0.50))
+                    .append(",\"p99Millis\":").append(result.samples().percentileMillis(0.99))
+                    .append(",\"errors\":").append(result.samples().errors())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private record Samples(long[] sortedLatencies, long errors) {
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private record Result(String mode, int durationSeconds, Samples samples) {
+
+        double throughput() {
+            return (double) samples.sortedLatencies().length / durationSeconds;
+        }
+
+        String summary() {
+            return String.format("%-8s %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  errors %d",
+                    mode, throughput(), samples.percentileMillis(0.50), samples.percentileMillis(0.99),
+                    samples.errors());
+        }
+    }
+}
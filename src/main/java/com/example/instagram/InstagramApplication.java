@@ -2,8 +2,12 @@ package com.example.instagram;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Tokens are the only way in (JwtAuthFilter), so Boot's generated in-memory user is not wanted.
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
+@EnableScheduling
 public class InstagramApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.example.instagram.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig implements WebMvcConfigurer {
+
+    @Value("${web.async.max-threads:4}")
+    private int webAsyncThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    // SQLite has a single writer, so more than one fan-out thread would only queue on the lock.
+    @Bean(name = "fanoutExecutor")
+    public ThreadPoolTaskExecutor fanoutExecutor(@Value("${timeline.fanout.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fanout-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Finishes sign-ups and password upgrades after BCrypt. The queue is unbounded because the hashing
+    // pool's own queue already bounds how much work can arrive.
+    @Bean(name = "authExecutor")
+    public ThreadPoolTaskExecutor authExecutor(@Value("${security.password.write-threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("auth-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Runs streaming responses. Each one holds a database connection until it finishes, so the executor
+    // has no queue and fewer threads than the connection pool: once it is full, new streams are rejected
+    // with 503, and ordinary requests always have connections left.
+    @Bean(name = "webAsyncExecutor")
+    public ThreadPoolTaskExecutor webAsyncExecutor() {
+        if (webAsyncThreads >= connectionPoolSize) {
+            throw new IllegalStateException("web.async.max-threads (" + webAsyncThreads
+                    + ") must be below spring.datasource.hikari.maximum-pool-size (" + connectionPoolSize + ")");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(webAsyncThreads);
+        executor.setMaxPoolSize(webAsyncThreads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("web-async-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(webAsyncExecutor());
+    }
+}
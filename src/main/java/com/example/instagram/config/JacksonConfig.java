@@ -0,0 +1,18 @@
+package com.example.instagram.config;
+
+import com.example.instagram.service.JsonFragmentCache;
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Boot registers Module beans with the application's ObjectMapper.
+    @Bean
+    @ConditionalOnProperty(name = "json.fragments.enabled", havingValue = "true", matchIfMissing = true)
+    public Module postResponseFragments(JsonFragmentCache jsonFragmentCache) {
+        return PostResponseSerializer.module(jsonFragmentCache);
+    }
+}
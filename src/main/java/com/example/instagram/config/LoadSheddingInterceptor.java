@@ -0,0 +1,61 @@
+package com.example.instagram.config;
+
+import com.example.instagram.exception.ApiException;
+import com.example.instagram.service.ConcurrencyLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Admits a request to its controller only while ConcurrencyLimiter has room for it, and answers 503
+// otherwise, so overload turns into fast failures instead of a growing queue in front of SQLite.
+// Streaming responses give their slot back when the controller method returns; they are bounded
+// separately by the async executor.
+@Component
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED_ATTRIBUTE = LoadSheddingInterceptor.class.getName() + ".started";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public LoadSheddingInterceptor(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        ConcurrencyLimiter.Priority priority = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                ? ConcurrencyLimiter.Priority.READ
+                : ConcurrencyLimiter.Priority.WRITE;
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE",
+                    "Server is overloaded, please retry shortly");
+        }
+        request.setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(STARTED_ATTRIBUTE) != null) {
+            request.removeAttribute(STARTED_ATTRIBUTE);
+            concurrencyLimiter.release(-1);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long started = (Long) request.getAttribute(STARTED_ATTRIBUTE);
+        if (started != null) {
+            request.removeAttribute(STARTED_ATTRIBUTE);
+            concurrencyLimiter.release(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.instagram.config;
+
+import com.example.instagram.monitoring.SqlAccountingInterceptor;
+import com.example.instagram.monitoring.SqlStatementInspector;
+import com.example.instagram.monitoring.SqlTimingListener;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class MonitoringConfig implements WebMvcConfigurer {
+
+    private final SqlAccountingInterceptor sqlAccountingInterceptor;
+    private final LoadSheddingInterceptor loadSheddingInterceptor;
+
+    @Value("${load-shedding.enabled:true}")
+    private boolean loadSheddingEnabled;
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlMonitoringCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // First, so shed requests are not attributed to their handler.
+        if (loadSheddingEnabled) {
+            registry.addInterceptor(loadSheddingInterceptor).addPathPatterns("/api/**");
+        }
+        registry.addInterceptor(sqlAccountingInterceptor).addPathPatterns("/api/**");
+    }
+}
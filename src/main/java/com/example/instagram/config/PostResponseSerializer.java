@@ -0,0 +1,82 @@
+package com.example.instagram.config;
+
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.service.JsonFragmentCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes a PostResponse as cached fragments plus its per-request fields (counts and liked), producing
+// the same bytes as the bean serializer it wraps. Property names and order must stay in step with
+// PostResponse's @JsonPropertyOrder; note that Lombok's isLiked() getter makes that property "liked".
+public class PostResponseSerializer extends StdSerializer<PostResponse> {
+
+    private static final SerializableString LIKES_COUNT = new SerializedString(",\"likesCount\":");
+    private static final SerializableString COMMENTS_COUNT = new SerializedString(",\"commentsCount\":");
+    private static final SerializableString LIKED = new SerializedString(",\"liked\":");
+    private static final SerializableString VIEWS_COUNT = new SerializedString(",\"viewsCount\":");
+    private static final SerializableString UNIQUE_VIEWERS = new SerializedString(",\"uniqueViewers\":");
+    private static final SerializableString TRUE = new SerializedString("true");
+    private static final SerializableString FALSE = new SerializedString("false");
+
+    private final JsonFragmentCache fragments;
+    private final JsonSerializer<PostResponse> fallback;
+
+    public PostResponseSerializer(JsonFragmentCache fragments, JsonSerializer<PostResponse> fallback) {
+        super(PostResponse.class);
+        this.fragments = fragments;
+        this.fallback = fallback;
+    }
+
+    // Replaces Jackson's bean serializer for PostResponse wherever it appears.
+    public static Module module(JsonFragmentCache fragments) {
+        SimpleModule module = new SimpleModule("PostResponseFragments");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(
+                    SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() == PostResponse.class) {
+                    return new PostResponseSerializer(fragments, (JsonSerializer<PostResponse>) serializer);
+                }
+                return serializer;
+            }
+        });
+        return module;
+    }
+
+    @Override
+    public void serialize(PostResponse post, JsonGenerator json, SerializerProvider provider) throws IOException {
+        // Raw output cannot be indented, and fragments are keyed by id.
+        if (json.getPrettyPrinter() != null || post.getId() == null
+                || post.getAuthor() == null || post.getAuthor().getId() == null) {
+            fallback.serialize(post, json, provider);
+            return;
+        }
+
+        JsonFragmentCache.PostFragment fragment = fragments.post(post);
+        json.writeRawValue(fragment.head());
+        json.writeRaw(fragments.author(post.getAuthor()));
+        json.writeRaw(LIKES_COUNT);
+        json.writeRaw(Long.toString(post.getLikesCount()));
+        json.writeRaw(COMMENTS_COUNT);
+        json.writeRaw(Long.toString(post.getCommentsCount()));
+        json.writeRaw(LIKED);
+        json.writeRaw(post.isLiked() ? TRUE : FALSE);
+        json.writeRaw(VIEWS_COUNT);
+        json.writeRaw(Long.toString(post.getViewsCount()));
+        json.writeRaw(UNIQUE_VIEWERS);
+        json.writeRaw(Long.toString(post.getUniqueViewers()));
+        json.writeRaw(fragment.tail());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.instagram.config;
+
+import com.example.instagram.dto.response.ErrorResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.service.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Runs after JwtAuthFilter, so authenticated requests are limited per user whichever token or address
+// they come from. Sign-in, registration and requests without a valid token are limited per client address.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.enabled:true}") boolean enabled
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        RateLimiter.Budget budget;
+        String clientKey;
+
+        if (request.getServletPath().startsWith("/api/v1/auth/")) {
+            budget = RateLimiter.Budget.AUTH;
+            clientKey = request.getRemoteAddr();
+        } else {
+            budget = isRead(request.getMethod()) ? RateLimiter.Budget.READ : RateLimiter.Budget.WRITE;
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            clientKey = authentication != null && authentication.getPrincipal() instanceof User user
+                    ? user.getId()
+                    : request.getRemoteAddr();
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(budget, clientKey);
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ErrorResponse.of("TOO_MANY_REQUESTS", "Rate limit exceeded, retry in " + retryAfterSeconds + "s"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.instagram.controller;
+
+import com.example.instagram.dto.response.AdminMetricsResponse;
+import com.example.instagram.dto.response.QueryPlanResponse;
+import com.example.instagram.exception.ApiException;
+import com.example.instagram.monitoring.QueryPlanAudit;
+import com.example.instagram.service.AdminMetricsService;
+import com.example.instagram.service.TagReindexer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final AdminMetricsService adminMetricsService;
+    private final QueryPlanAudit queryPlanAudit;
+    private final TagReindexer tagReindexer;
+
+    @GetMapping("/metrics")
+    public ResponseEntity<AdminMetricsResponse> getMetrics() {
+        return ResponseEntity.ok(adminMetricsService.getMetrics());
+    }
+
+    @GetMapping("/query-plans")
+    public ResponseEntity<List<QueryPlanResponse>> getQueryPlans() {
+        return ResponseEntity.ok(queryPlanAudit.audit());
+    }
+
+    // Runs in the background; progress and completion are logged.
+    @PostMapping("/reindex-tags")
+    public ResponseEntity<Void> reindexTags() {
+        if (!tagReindexer.start()) {
+            throw new ApiException(HttpStatus.CONFLICT, "CONFLICT", "A tag reindex is already running");
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
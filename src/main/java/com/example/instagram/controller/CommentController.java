@@ -2,22 +2,33 @@ package com.example.instagram.controller;
 
 import com.example.instagram.dto.request.CreateCommentRequest;
 import com.example.instagram.dto.response.CommentResponse;
+import com.example.instagram.dto.response.CursorPageResponse;
 import com.example.instagram.dto.response.PageResponse;
 import com.example.instagram.model.User;
 import com.example.instagram.service.CommentService;
+import com.example.instagram.service.PostVersions;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
+@Validated
 @RequestMapping("/api/v1/posts/{postId}/comments")
 @RequiredArgsConstructor
 public class CommentController {
 
     private final CommentService commentService;
+    private final PostVersions postVersions;
 
     @PostMapping
     public ResponseEntity<CommentResponse> addComment(
@@ -32,10 +43,49 @@ public class CommentController {
     @GetMapping
     public ResponseEntity<PageResponse<CommentResponse>> getComments(
             @PathVariable String postId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request
     ) {
+        if (notModified(postId, request)) {
+            return null;
+        }
+
         PageResponse<CommentResponse> response = commentService.getComments(postId, page, size);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getCommentsByCursor(
+            @PathVariable String postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            WebRequest request
+    ) {
+        if (notModified(postId, request)) {
+            return null;
+        }
+
+        CursorPageResponse<CommentResponse> response = commentService.getComments(postId, cursor, size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportComments(@PathVariable String postId) {
+        StreamingResponseBody body = commentService.exportComments(postId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Comments look the same to every viewer, so one tag per post version covers every page of them.
+    // On a match the 304 is already prepared and the handler returns null.
+    private boolean notModified(String postId, WebRequest request) {
+        PostVersions.Stamp stamp = postVersions.current(postId);
+        return request.checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli());
     }
 }
@@ -1,24 +1,35 @@
 package com.example.instagram.controller;
 
 import com.example.instagram.dto.request.CreatePostRequest;
+import com.example.instagram.dto.response.CursorPageResponse;
 import com.example.instagram.dto.response.LikeResponse;
 import com.example.instagram.dto.response.PageResponse;
 import com.example.instagram.dto.response.PostResponse;
 import com.example.instagram.model.User;
 import com.example.instagram.service.PostService;
+import com.example.instagram.service.PostVersions;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
+@Validated
 @RequestMapping("/api/v1/posts")
 @RequiredArgsConstructor
 public class PostController {
 
     private final PostService postService;
+    private final PostVersions postVersions;
 
     @PostMapping
     public ResponseEntity<PostResponse> createPost(
@@ -31,21 +42,49 @@ public class PostController {
 
     @GetMapping
     public ResponseEntity<PageResponse<PostResponse>> getFeed(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
             @AuthenticationPrincipal User currentUser
     ) {
         PageResponse<PostResponse> response = postService.getFeed(page, size, currentUser);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getFeedByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        CursorPageResponse<PostResponse> response = postService.getFeed(cursor, size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponse>> getTrending(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        List<PostResponse> response = postService.getTrending(size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
+    // Returning null after checkNotModified sends the 304 it prepared, without touching the post.
     @GetMapping("/{postId}")
     public ResponseEntity<PostResponse> getPost(
             @PathVariable String postId,
-            @AuthenticationPrincipal User currentUser
+            @AuthenticationPrincipal User currentUser,
+            WebRequest request
     ) {
+        PostVersions.Stamp stamp = postVersions.current(postId);
+        if (request.checkNotModified(stamp.etag(currentUser.getId()), stamp.lastModified().toEpochMilli())) {
+            return null;
+        }
+
         PostResponse response = postService.getPost(postId, currentUser);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     @DeleteMapping("/{postId}")
@@ -0,0 +1,44 @@
+package com.example.instagram.controller;
+
+import com.example.instagram.dto.response.CommentResponse;
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.service.SearchService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<CursorPageResponse<PostResponse>> searchPosts(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        CursorPageResponse<PostResponse> response = searchService.searchPosts(q, cursor, size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(params = "type=comments")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> searchComments(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size
+    ) {
+        CursorPageResponse<CommentResponse> response = searchService.searchComments(q, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+}
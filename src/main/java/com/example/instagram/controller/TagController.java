@@ -0,0 +1,33 @@
+package com.example.instagram.controller;
+
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.service.TagService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping("/api/v1/tags")
+@RequiredArgsConstructor
+public class TagController {
+
+    private final TagService tagService;
+
+    @GetMapping("/{tag}/posts")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getTaggedPosts(
+            @PathVariable String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        CursorPageResponse<PostResponse> response = tagService.getTaggedPosts(tag, cursor, size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.instagram.controller;
+
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.FollowResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.service.FollowService;
+import com.example.instagram.service.TagService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final FollowService followService;
+    private final TagService tagService;
+
+    @PostMapping("/{userId}/follow")
+    public ResponseEntity<FollowResponse> follow(
+            @PathVariable String userId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        FollowResponse response = followService.follow(userId, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/{userId}/follow")
+    public ResponseEntity<FollowResponse> unfollow(
+            @PathVariable String userId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        FollowResponse response = followService.unfollow(userId, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{userId}/mentions")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getMentions(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        CursorPageResponse<PostResponse> response = tagService.getMentions(userId, cursor, size, currentUser);
+        return ResponseEntity.ok(response);
+    }
+}
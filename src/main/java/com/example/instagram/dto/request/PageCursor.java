@@ -0,0 +1,48 @@
+package com.example.instagram.dto.request;
+
+import com.example.instagram.exception.ApiException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private Instant createdAt;
+    private String id;
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing or blank cursor, which means "start from the newest row".
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw invalidCursor();
+            }
+            return new PageCursor(Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static ApiException invalidCursor() {
+        return new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "Invalid cursor");
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.instagram.dto.request;
+
+import com.example.instagram.exception.ApiException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position in a ranked search: results continue after this rank, ties broken by docid. The rank is
+// carried as the bits of the double bm25() returned, so the next page compares against exactly the
+// same value and no row is skipped or repeated at the boundary.
+@Data
+@AllArgsConstructor
+public class SearchCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private double rank;
+    private long docid;
+
+    public String encode() {
+        String raw = Long.toHexString(Double.doubleToLongBits(rank)) + SEPARATOR + docid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing or blank cursor, which means "start from the best match".
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw invalidCursor();
+            }
+            double rank = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16));
+            if (Double.isNaN(rank)) {
+                throw invalidCursor();
+            }
+            return new SearchCursor(rank, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static ApiException invalidCursor() {
+        return new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "Invalid cursor");
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.instagram.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminMetricsResponse {
+
+    private List<EndpointMetricsResponse> endpoints;
+    private long slowQueries;
+}
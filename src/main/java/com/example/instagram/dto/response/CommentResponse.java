@@ -16,6 +16,7 @@ import java.time.Instant;
 public class CommentResponse {
 
     private String id;
+    private String postId;
     private String text;
     private AuthorSummary author;
     private Instant createdAt;
@@ -23,6 +24,7 @@ public class CommentResponse {
     public static CommentResponse from(Comment comment, User author) {
         return CommentResponse.builder()
                 .id(comment.getId())
+                .postId(comment.getPost().getId())
                 .text(comment.getText())
                 .author(AuthorSummary.from(author))
                 .createdAt(comment.getCreatedAt())
@@ -0,0 +1,25 @@
+package com.example.instagram.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private String nextCursor;
+
+    public static <T> CursorPageResponse<T> of(List<T> content, String nextCursor) {
+        return CursorPageResponse.<T>builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.instagram.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointMetricsResponse {
+
+    private String handler;
+    private long requests;
+    private double latencyMeanMs;
+    private double latencyP50Ms;
+    private double latencyP95Ms;
+    private double latencyP99Ms;
+    private double latencyMaxMs;
+    private double statementsMean;
+    private double statementsP99;
+    private double statementsMax;
+    private double sqlTimeMeanMs;
+    private double sqlTimeP99Ms;
+}
@@ -0,0 +1,16 @@
+package com.example.instagram.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowResponse {
+
+    private String userId;
+    private long followersCount;
+}
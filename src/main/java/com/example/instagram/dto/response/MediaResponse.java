@@ -0,0 +1,18 @@
+package com.example.instagram.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaResponse {
+
+    private String id;
+    private String url;
+    private String contentType;
+    private long size;
+}
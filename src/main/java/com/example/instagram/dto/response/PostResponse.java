@@ -2,6 +2,7 @@ package com.example.instagram.dto.response;
 
 import com.example.instagram.model.Post;
 import com.example.instagram.model.User;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,8 +10,11 @@ import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
+// Explicit order: PostResponseSerializer writes the same properties in the same order.
+@JsonPropertyOrder({"id", "imageUrl", "caption", "author", "likesCount", "commentsCount", "liked",
+        "viewsCount", "uniqueViewers", "createdAt"})
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostResponse {
@@ -22,6 +26,8 @@ public class PostResponse {
     private long likesCount;
     private long commentsCount;
     private boolean isLiked;
+    private long viewsCount;
+    private long uniqueViewers;
     private Instant createdAt;
 
     public static PostResponse from(Post post, User author, long likesCount, long commentsCount, boolean isLiked) {
@@ -33,6 +39,8 @@ public class PostResponse {
                 .likesCount(likesCount)
                 .commentsCount(commentsCount)
                 .isLiked(isLiked)
+                .viewsCount(post.getViewsCount())
+                .uniqueViewers(post.getUniqueViewers())
                 .createdAt(post.getCreatedAt())
                 .build();
     }
@@ -0,0 +1,4 @@
+package com.example.instagram.event;
+
+public record CommentAddedEvent(String postId, String commentId, String authorId) {
+}
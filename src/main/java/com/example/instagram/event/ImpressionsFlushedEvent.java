@@ -0,0 +1,8 @@
+package com.example.instagram.event;
+
+import java.util.Map;
+
+// Per-post views added to posts.views_count and the new unique viewer estimates, from one
+// ImpressionTracker flush.
+public record ImpressionsFlushedEvent(Map<String, Long> viewsCountDeltas, Map<String, Long> uniqueViewers) {
+}
@@ -0,0 +1,7 @@
+package com.example.instagram.event;
+
+import java.util.Map;
+
+// Per-post changes to posts.likes_count written by one LikeBuffer flush.
+public record LikesFlushedEvent(Map<String, Long> likesCountDeltas) {
+}
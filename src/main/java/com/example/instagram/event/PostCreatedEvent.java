@@ -0,0 +1,4 @@
+package com.example.instagram.event;
+
+public record PostCreatedEvent(String postId, String authorId) {
+}
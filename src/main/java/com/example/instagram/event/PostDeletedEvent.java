@@ -0,0 +1,4 @@
+package com.example.instagram.event;
+
+public record PostDeletedEvent(String postId, String authorId) {
+}
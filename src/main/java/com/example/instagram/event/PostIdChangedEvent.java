@@ -0,0 +1,4 @@
+package com.example.instagram.event;
+
+public record PostIdChangedEvent(String oldPostId, String newPostId) {
+}
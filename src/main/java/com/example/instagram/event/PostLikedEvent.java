@@ -0,0 +1,5 @@
+package com.example.instagram.event;
+
+// likesCountDelta is the change already written to posts.likes_count, which is 0 while the like is buffered.
+public record PostLikedEvent(String postId, String userId, boolean liked, long likesCountDelta) {
+}
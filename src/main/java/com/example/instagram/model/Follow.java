@@ -0,0 +1,40 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "follows")
+public class Follow {
+
+    @EmbeddedId
+    private FollowId id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("followerId")
+    @JoinColumn(name = "follower_id")
+    private User follower;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("followeeId")
+    @JoinColumn(name = "followee_id")
+    private User followee;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
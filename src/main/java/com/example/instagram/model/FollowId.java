@@ -0,0 +1,18 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class FollowId implements Serializable {
+
+    private String followerId;
+    private String followeeId;
+}
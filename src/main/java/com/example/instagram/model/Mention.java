@@ -0,0 +1,28 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One row per user mentioned in a caption or comment; the id is (mentioned user, post or comment id).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "mentions")
+public class Mention {
+
+    @EmbeddedId
+    private MentionId id;
+
+    @Column(name = "post_id", nullable = false)
+    private String postId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
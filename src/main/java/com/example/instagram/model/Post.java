@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 @Data
 @Builder
@@ -17,7 +18,7 @@ import java.time.Instant;
 public class Post {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,11 +31,35 @@ public class Post {
     @Column(columnDefinition = "TEXT")
     private String caption;
 
+    // Maintained only through atomic UPDATEs in PostRepository, never by entity flushes.
+    @Builder.Default
+    @Column(name = "likes_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private long likesCount = 0;
+
+    @Builder.Default
+    @Column(name = "comments_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private long commentsCount = 0;
+
+    // Written by ImpressionTracker flushes, also only through UPDATEs.
+    @Builder.Default
+    @Column(name = "views_count", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private long viewsCount = 0;
+
+    @Builder.Default
+    @Column(name = "unique_viewers", nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private long uniqueViewers = 0;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    // Set when the post is deleted; PostPurger removes the row and its dependents later.
+    @Column(name = "deleted_at", updatable = false)
+    private Instant deletedAt;
+
+    // Truncated to what the column stores, so the instance that was saved and every later read of the
+    // row serialize the same createdAt.
     @PrePersist
     protected void onCreate() {
-        createdAt = Instant.now();
+        createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
     }
 }
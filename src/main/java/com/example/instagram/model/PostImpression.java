@@ -0,0 +1,24 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Serialized HyperLogLog of a post's distinct viewers, merged into on each ImpressionTracker flush.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_impressions")
+public class PostImpression {
+
+    @Id
+    @Column(name = "post_id")
+    private String postId;
+
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] sketch;
+}
@@ -0,0 +1,26 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One row per (hashtag, post), from the caption or any comment on the post.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "post_tags")
+public class PostTag {
+
+    @EmbeddedId
+    private PostTagId id;
+
+    // Copy of posts.created_at, for the page cursor.
+    @Column(name = "post_created_at", nullable = false)
+    private Instant postCreatedAt;
+}
@@ -0,0 +1,22 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class PostTagId implements Serializable {
+
+    @Column(name = "tag", length = 100)
+    private String tag;
+
+    @Column(name = "post_id")
+    private String postId;
+}
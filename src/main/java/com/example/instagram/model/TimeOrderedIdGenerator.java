@@ -0,0 +1,76 @@
+package com.example.instagram.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ULID-layout ids: 48 bits of Unix milliseconds then 80 random bits, as 26 Crockford base32 characters.
+// They sort lexicographically in creation order, so new rows append to the primary-key B-tree and
+// ORDER BY id DESC is newest first. Ids from this process within one millisecond count up from the
+// random part instead of drawing a new one, so they are strictly increasing.
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public static final int LENGTH = 26;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static long lastMillis;
+    private static long randomHigh;
+    private static long randomLow;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public static String next() {
+        LOCK.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                randomHigh = RANDOM.nextInt(1 << 16);
+                randomLow = RANDOM.nextLong();
+            } else if (++randomLow == 0 && (randomHigh = (randomHigh + 1) & 0xFFFF) == 0) {
+                // Same millisecond (or the clock stepped back) and the random part overflowed.
+                lastMillis++;
+            }
+            return encode(lastMillis, randomHigh, randomLow);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // An id for a row created at the given instant, used when migrating existing rows.
+    public static String at(Instant createdAt) {
+        return encode(createdAt.toEpochMilli(), RANDOM.nextInt(1 << 16), RANDOM.nextLong());
+    }
+
+    private static String encode(long millis, long randomHigh, long randomLow) {
+        long high = (millis << 16) | randomHigh;
+        long low = randomLow;
+
+        // 128 bits as 26 five-bit digits, least significant last; the first digit holds the top 3 bits.
+        char[] id = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            id[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(id);
+    }
+}
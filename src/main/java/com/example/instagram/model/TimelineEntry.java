@@ -0,0 +1,26 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// One row per (reader, post) in a user's home timeline, written by fan-out when the post is created.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "timelines")
+public class TimelineEntry {
+
+    @EmbeddedId
+    private TimelineEntryId id;
+
+    // Copy of posts.created_at so a timeline slice can be ordered without touching posts.
+    @Column(name = "post_created_at", nullable = false)
+    private Instant postCreatedAt;
+}
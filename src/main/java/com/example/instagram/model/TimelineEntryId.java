@@ -0,0 +1,22 @@
+package com.example.instagram.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class TimelineEntryId implements Serializable {
+
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "post_id")
+    private String postId;
+}
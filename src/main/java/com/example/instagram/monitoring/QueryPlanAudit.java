@@ -0,0 +1,71 @@
+package com.example.instagram.monitoring;
+
+import com.example.instagram.dto.response.QueryPlanResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+// Remembers every distinct statement Hibernate has prepared, so their plans can be checked against
+// the live schema. Catches repository queries that fall back to a full table scan, once they have run.
+@Component
+public class QueryPlanAudit {
+
+    private final QueryPlanExplainer queryPlanExplainer;
+    private final Cache<String, Boolean> statements = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .build();
+
+    public QueryPlanAudit(QueryPlanExplainer queryPlanExplainer) {
+        this.queryPlanExplainer = queryPlanExplainer;
+    }
+
+    @PostConstruct
+    void register() {
+        SqlStatementTracker.register(this);
+    }
+
+    @PreDestroy
+    void unregister() {
+        SqlStatementTracker.register((QueryPlanAudit) null);
+    }
+
+    void record(String sql) {
+        statements.asMap().putIfAbsent(sql, Boolean.TRUE);
+    }
+
+    public Set<String> statements() {
+        return Set.copyOf(statements.asMap().keySet());
+    }
+
+    // Full table scans first.
+    public List<QueryPlanResponse> audit() {
+        return statements.asMap().keySet().stream()
+                .map(this::explain)
+                .sorted(Comparator.comparing(QueryPlanResponse::isFullScan).reversed()
+                        .thenComparing(QueryPlanResponse::getSql))
+                .toList();
+    }
+
+    private QueryPlanResponse explain(String sql) {
+        try {
+            List<String> plan = queryPlanExplainer.explain(sql);
+            return QueryPlanResponse.builder()
+                    .sql(sql)
+                    .plan(plan)
+                    .fullScan(plan.stream().anyMatch(QueryPlanExplainer::isFullTableScan))
+                    .build();
+        } catch (SQLException e) {
+            return QueryPlanResponse.builder()
+                    .sql(sql)
+                    .plan(List.of("(unavailable: " + e.getMessage() + ")"))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.instagram.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runs SQLite's EXPLAIN QUERY PLAN for a statement on a connection of its own.
+@Component
+@RequiredArgsConstructor
+public class QueryPlanExplainer {
+
+    private final DataSource dataSource;
+
+    // One line per plan step, indented two spaces per level of nesting. Parameters are bound as NULL;
+    // SQLite picks the plan from the statement shape, not the values.
+    public List<String> explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+
+            List<String> plan = new ArrayList<>();
+            Map<Integer, Integer> depths = new HashMap<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    int depth = depths.getOrDefault(rows.getInt("parent"), -1) + 1;
+                    depths.put(rows.getInt("id"), depth);
+                    plan.add("  ".repeat(depth) + rows.getString("detail"));
+                }
+            }
+            return plan;
+        }
+    }
+
+    // A step that reads a whole table without an index. Scans of an index, of a full-text index, of a
+    // constant row or of a materialized subquery are not counted.
+    public static boolean isFullTableScan(String step) {
+        String detail = step.strip();
+        return detail.startsWith("SCAN ")
+                && !detail.contains(" USING ")
+                && !detail.contains(" VIRTUAL TABLE INDEX ")
+                && !detail.equals("SCAN CONSTANT ROW")
+                && !detail.startsWith("SCAN (");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.instagram.monitoring;
+
+// Statements executed while one request was being handled. Only touched by the thread currently
+// handling the request; async dispatches hand it over through a request attribute.
+class RequestSqlStats {
+
+    private final String handler;
+    private final long startedAt = System.nanoTime();
+    private int statements;
+    private long nanos;
+
+    RequestSqlStats(String handler) {
+        this.handler = handler;
+    }
+
+    void record(long statementNanos) {
+        statements++;
+        nanos += statementNanos;
+    }
+
+    String getHandler() {
+        return handler;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getNanos() {
+        return nanos;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startedAt;
+    }
+}
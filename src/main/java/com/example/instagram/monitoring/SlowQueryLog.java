@@ -0,0 +1,98 @@
+package com.example.instagram.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Logs statements slower than the threshold together with SQLite's EXPLAIN QUERY PLAN for them.
+// Plans are captured off the request thread on a separate connection, at most once per distinct
+// statement every few minutes, and dropped rather than queued when the explainer falls behind.
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private final QueryPlanExplainer queryPlanExplainer;
+    private final long thresholdNanos;
+    private final boolean explain;
+    private final Counter slowQueries;
+    private final Cache<String, Boolean> recentlyExplained;
+    private final ThreadPoolExecutor explainer;
+
+    public SlowQueryLog(
+            QueryPlanExplainer queryPlanExplainer,
+            MeterRegistry meterRegistry,
+            @Value("${sql.slow-query.threshold-ms:100}") long thresholdMs,
+            @Value("${sql.slow-query.explain:true}") boolean explain
+    ) {
+        this.queryPlanExplainer = queryPlanExplainer;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.explain = explain;
+        this.slowQueries = Counter.builder("sql.slow.queries")
+                .description("Statements slower than sql.slow-query.threshold-ms")
+                .register(meterRegistry);
+        this.recentlyExplained = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .build();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-query-explain-");
+        threadFactory.setDaemon(true);
+        this.explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void register() {
+        SqlStatementTracker.register(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        SqlStatementTracker.register((SlowQueryLog) null);
+        explainer.shutdownNow();
+    }
+
+    void offer(String sql, long nanos, String handler) {
+        if (nanos < thresholdNanos || sql == null) {
+            return;
+        }
+        slowQueries.increment();
+
+        double millis = nanos / 1_000_000.0;
+        String source = handler != null ? handler : Thread.currentThread().getName();
+        if (!explain || recentlyExplained.asMap().putIfAbsent(sql, Boolean.TRUE) != null) {
+            log.warn("Slow query ({} ms) in {}: {}", millis, source, sql);
+            return;
+        }
+        try {
+            explainer.execute(() -> log.warn("Slow query ({} ms) in {}: {}\nQuery plan:\n{}",
+                    millis, source, sql, explainQueryPlan(sql)));
+        } catch (RejectedExecutionException e) {
+            log.warn("Slow query ({} ms) in {}: {}", millis, source, sql);
+        }
+    }
+
+    private String explainQueryPlan(String sql) {
+        try {
+            StringBuilder plan = new StringBuilder();
+            queryPlanExplainer.explain(sql).forEach(step -> plan.append("  ").append(step).append('\n'));
+            return plan.toString();
+        } catch (SQLException e) {
+            return "  (unavailable: " + e.getMessage() + ")";
+        }
+    }
+}
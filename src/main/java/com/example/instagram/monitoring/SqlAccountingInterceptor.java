@@ -0,0 +1,94 @@
+package com.example.instagram.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+// Attributes the SQL executed while a controller method runs to that method, and records its latency.
+// Statements run on other threads (password hashing, the group-commit writer, fan-out) are not counted.
+@Slf4j
+@Component
+public class SqlAccountingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String STATEMENTS_METRIC = "http.server.sql.statements";
+    public static final String SQL_TIME_METRIC = "http.server.sql.time";
+    public static final String LATENCY_METRIC = "http.server.handler.latency";
+
+    private static final String STATS_ATTRIBUTE = RequestSqlStats.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final int statementWarnThreshold;
+
+    public SqlAccountingInterceptor(
+            MeterRegistry meterRegistry,
+            @Value("${sql.request.statement-warn-threshold:25}") int statementWarnThreshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.statementWarnThreshold = statementWarnThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        // Async dispatches come back through here with the stats started by the first dispatch.
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = new RequestSqlStats(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        }
+        SqlStatementTracker.attach(stats);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementTracker.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementTracker.detach();
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            return;
+        }
+        request.removeAttribute(STATS_ATTRIBUTE);
+
+        String name = stats.getHandler();
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("SQL statements executed per request")
+                .tag("handler", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder(SQL_TIME_METRIC)
+                .description("Time spent executing SQL per request")
+                .tag("handler", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder(LATENCY_METRIC)
+                .description("Time from entering the controller method until the response completed")
+                .tag("handler", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.elapsedNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > statementWarnThreshold) {
+            log.warn("{} executed {} SQL statements in one request ({} ms of SQL)",
+                    name, stats.getStatements(), stats.getNanos() / 1_000_000.0);
+        }
+    }
+}
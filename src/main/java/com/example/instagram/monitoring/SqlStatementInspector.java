@@ -0,0 +1,13 @@
+package com.example.instagram.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every SQL string Hibernate is about to prepare; the timing listener attributes executions to it.
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementTracker.prepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.instagram.monitoring;
+
+// Hibernate creates SqlTimingListener itself, one per session, so the state it shares with Spring
+// beans is kept here: the statement last prepared on this thread and the request it belongs to.
+final class SqlStatementTracker {
+
+    private static final ThreadLocal<String> lastPrepared = new ThreadLocal<>();
+    private static final ThreadLocal<RequestSqlStats> currentRequest = new ThreadLocal<>();
+    private static volatile SlowQueryLog slowQueryLog;
+    private static volatile QueryPlanAudit queryPlanAudit;
+
+    private SqlStatementTracker() {
+    }
+
+    static void prepared(String sql) {
+        lastPrepared.set(sql);
+        QueryPlanAudit audit = queryPlanAudit;
+        if (audit != null) {
+            audit.record(sql);
+        }
+    }
+
+    static void executed(long nanos) {
+        RequestSqlStats stats = currentRequest.get();
+        if (stats != null) {
+            stats.record(nanos);
+        }
+        SlowQueryLog log = slowQueryLog;
+        if (log != null) {
+            log.offer(lastPrepared.get(), nanos, stats != null ? stats.getHandler() : null);
+        }
+    }
+
+    static void attach(RequestSqlStats stats) {
+        currentRequest.set(stats);
+    }
+
+    static void detach() {
+        currentRequest.remove();
+        lastPrepared.remove();
+    }
+
+    static void register(SlowQueryLog log) {
+        slowQueryLog = log;
+    }
+
+    static void register(QueryPlanAudit audit) {
+        queryPlanAudit = audit;
+    }
+}
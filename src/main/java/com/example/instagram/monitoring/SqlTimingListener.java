@@ -0,0 +1,29 @@
+package com.example.instagram.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+// Instantiated by Hibernate for each session, which is confined to one thread at a time.
+public class SqlTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementTracker.executed(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementTracker.executed(System.nanoTime() - startedAt);
+    }
+}
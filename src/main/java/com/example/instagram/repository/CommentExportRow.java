@@ -0,0 +1,20 @@
+package com.example.instagram.repository;
+
+import java.time.Instant;
+
+// Read-only projection for exports; rows are not managed entities, so streaming them keeps the
+// persistence context empty.
+public interface CommentExportRow {
+
+    String getId();
+
+    String getText();
+
+    Instant getCreatedAt();
+
+    String getAuthorId();
+
+    String getAuthorUsername();
+
+    String getAuthorAvatarUrl();
+}
@@ -1,15 +1,72 @@
 package com.example.instagram.repository;
 
 import com.example.instagram.model.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
 
-    Page<Comment> findByPostIdOrderByCreatedAtDesc(String postId, Pageable pageable);
+    Page<Comment> findByPostIdOrderByIdDesc(String postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.id = :postId ORDER BY c.id DESC")
+    List<Comment> findLatestByPostId(@Param("postId") String postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.post.id = :postId AND c.id < :id " +
+            "ORDER BY c.id DESC")
+    List<Comment> findByPostIdBefore(@Param("postId") String postId, @Param("id") String id, Pageable pageable);
 
     long countByPostId(String postId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :ids AND c.post.deletedAt IS NULL")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<String> ids);
+
+    // Full-text search over comment text, best match first; see V4__full_text_search.sql.
+    @Query(value = "SELECT comment_id AS id, rank AS rank, rowid AS docid FROM comment_search " +
+            "WHERE comment_search MATCH :query ORDER BY rank, rowid LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHit> searchText(@Param("query") String query, @Param("limit") int limit);
+
+    @Query(value = "SELECT comment_id AS id, rank AS rank, rowid AS docid FROM comment_search " +
+            "WHERE comment_search MATCH :query AND (rank > :rank OR (rank = :rank AND rowid > :docid)) " +
+            "ORDER BY rank, rowid LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHit> searchTextAfter(
+            @Param("query") String query,
+            @Param("rank") double rank,
+            @Param("docid") long docid,
+            @Param("limit") int limit);
+
+    @Query("SELECT c.id AS id, c.text AS text FROM Comment c WHERE c.id > :after ORDER BY c.id")
+    List<TextRow> findTextAfter(@Param("after") String after, Pageable pageable);
+
+    // Forward-only; must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c.id AS id, c.text AS text, c.createdAt AS createdAt, a.id AS authorId, " +
+            "a.username AS authorUsername, a.avatarUrl AS authorAvatarUrl " +
+            "FROM Comment c JOIN c.author a WHERE c.post.id = :postId " +
+            "ORDER BY c.id DESC")
+    Stream<CommentExportRow> streamByPostId(@Param("postId") String postId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE rowid IN (SELECT rowid FROM comments WHERE post_id = :postId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") String postId, @Param("limit") int limit);
 }
@@ -0,0 +1,30 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.model.Follow;
+import com.example.instagram.model.FollowId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, FollowId> {
+
+    boolean existsById(FollowId id);
+
+    @Query("SELECT f.id.followerId FROM Follow f WHERE f.id.followeeId = :followeeId " +
+            "AND f.id.followerId > :after ORDER BY f.id.followerId")
+    List<String> findFollowerIdsAfter(
+            @Param("followeeId") String followeeId,
+            @Param("after") String after,
+            Pageable pageable);
+
+    @Query("SELECT u.id FROM Follow f JOIN f.followee u " +
+            "WHERE f.id.followerId = :followerId AND u.followersCount >= :threshold")
+    List<String> findFolloweeIdsWithFollowersAtLeast(
+            @Param("followerId") String followerId,
+            @Param("threshold") long threshold);
+}
@@ -3,7 +3,15 @@ package com.example.instagram.repository;
 import com.example.instagram.model.Like;
 import com.example.instagram.model.LikeId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, LikeId> {
@@ -11,4 +19,27 @@ public interface LikeRepository extends JpaRepository<Like, LikeId> {
     boolean existsById(LikeId id);
 
     long countByPostId(String postId);
+
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO likes (user_id, post_id, created_at) " +
+            "SELECT :userId, :postId, :createdAt " +
+            "WHERE EXISTS (SELECT 1 FROM posts WHERE id = :postId AND deleted_at IS NULL)",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("userId") String userId,
+            @Param("postId") String postId,
+            @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.id.userId = :userId AND l.id.postId = :postId")
+    int deleteByUserIdAndPostId(@Param("userId") String userId, @Param("postId") String postId);
+
+    @Query("SELECT l.id.postId FROM Like l WHERE l.id.userId = :userId AND l.id.postId IN :postIds")
+    Set<String> findLikedPostIds(@Param("userId") String userId, @Param("postIds") Collection<String> postIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE rowid IN (SELECT rowid FROM likes WHERE post_id = :postId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") String postId, @Param("limit") int limit);
 }
@@ -0,0 +1,51 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.model.Mention;
+import com.example.instagram.model.MentionId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MentionRepository extends JpaRepository<Mention, MentionId> {
+
+    // Post and comment ids are time-ordered, so both reads walk the (user_id, source_id) key backwards.
+    @Query("SELECT m FROM Mention m WHERE m.id.userId = :userId ORDER BY m.id.sourceId DESC")
+    List<Mention> findLatest(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT m FROM Mention m WHERE m.id.userId = :userId AND m.id.sourceId < :sourceId " +
+            "ORDER BY m.id.sourceId DESC")
+    List<Mention> findBefore(@Param("userId") String userId, @Param("sourceId") String sourceId, Pageable pageable);
+
+    // Usernames that match no user are dropped. Flushes first, so it sees a post saved in this transaction.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT OR IGNORE INTO mentions (user_id, source_id, post_id, created_at) " +
+            "SELECT u.id, p.id, p.id, p.created_at FROM users u " +
+            "JOIN posts p ON p.id = :postId AND p.deleted_at IS NULL " +
+            "WHERE u.username IN (:usernames)",
+            nativeQuery = true)
+    int insertForPost(@Param("postId") String postId, @Param("usernames") Collection<String> usernames);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT OR IGNORE INTO mentions (user_id, source_id, post_id, created_at) " +
+            "SELECT u.id, c.id, c.post_id, c.created_at FROM users u " +
+            "JOIN comments c ON c.id = :commentId " +
+            "JOIN posts p ON p.id = c.post_id AND p.deleted_at IS NULL " +
+            "WHERE u.username IN (:usernames)",
+            nativeQuery = true)
+    int insertForComment(@Param("commentId") String commentId, @Param("usernames") Collection<String> usernames);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM mentions WHERE (user_id, source_id) IN " +
+            "(SELECT user_id, source_id FROM mentions WHERE post_id = :postId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") String postId, @Param("limit") int limit);
+}
@@ -0,0 +1,19 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.model.PostImpression;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface PostImpressionRepository extends JpaRepository<PostImpression, String> {
+
+    // Purge of a deleted post.
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_impressions WHERE post_id = :postId", nativeQuery = true)
+    int deleteByPostId(@Param("postId") String postId);
+}
@@ -1,15 +1,111 @@
 package com.example.instagram.repository;
 
 import com.example.instagram.model.Post;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, String> {
 
-    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC")
-    Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    // Reads that serve clients skip tombstoned posts; see PostPurger.
+    @Query("SELECT p FROM Post p WHERE p.id = :id AND p.deletedAt IS NULL")
+    Optional<Post> findVisibleById(@Param("id") String id);
+
+    boolean existsByIdAndDeletedAtIsNull(String id);
+
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    List<Post> findAllWithAuthorByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds AND p.deletedAt IS NULL ORDER BY p.id DESC")
+    List<Post> findLatestByAuthorIds(@Param("authorIds") Collection<String> authorIds, Pageable pageable);
+
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds AND p.id < :id AND p.deletedAt IS NULL " +
+            "ORDER BY p.id DESC")
+    List<Post> findBeforeByAuthorIds(
+            @Param("authorIds") Collection<String> authorIds,
+            @Param("id") String id,
+            Pageable pageable);
+
+    long countByAuthorIdInAndDeletedAtIsNull(Collection<String> authorIds);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.deletedAt = :deletedAt WHERE p.id = :id AND p.deletedAt IS NULL")
+    int markDeleted(@Param("id") String id, @Param("deletedAt") Instant deletedAt);
+
+    @Query("SELECT p.id FROM Post p WHERE p.deletedAt IS NOT NULL ORDER BY p.deletedAt")
+    List<String> findDeletedIds(Pageable pageable);
+
+    // Only once nothing references the post any more.
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM posts WHERE id = :id AND deleted_at IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM likes WHERE post_id = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM comments WHERE post_id = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM timelines WHERE post_id = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM post_tags WHERE post_id = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM mentions WHERE post_id = :id) " +
+            "AND NOT EXISTS (SELECT 1 FROM post_impressions WHERE post_id = :id)",
+            nativeQuery = true)
+    int purgeDeleted(@Param("id") String id);
+
+    // Full-text search over captions, best match first; see V4__full_text_search.sql.
+    @Query(value = "SELECT post_id AS id, rank AS rank, rowid AS docid FROM post_search " +
+            "WHERE post_search MATCH :query ORDER BY rank, rowid LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHit> searchCaptions(@Param("query") String query, @Param("limit") int limit);
+
+    @Query(value = "SELECT post_id AS id, rank AS rank, rowid AS docid FROM post_search " +
+            "WHERE post_search MATCH :query AND (rank > :rank OR (rank = :rank AND rowid > :docid)) " +
+            "ORDER BY rank, rowid LIMIT :limit",
+            nativeQuery = true)
+    List<SearchHit> searchCaptionsAfter(
+            @Param("query") String query,
+            @Param("rank") double rank,
+            @Param("docid") long docid,
+            @Param("limit") int limit);
+
+    @Query("SELECT p.likesCount FROM Post p WHERE p.id = :id")
+    long findLikesCountById(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = p.likesCount + :delta WHERE p.id = :id")
+    int incrementLikesCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = p.commentsCount + :delta WHERE p.id = :id")
+    int incrementCommentsCount(@Param("id") String id, @Param("delta") long delta);
+
+    @Query("SELECT p.id AS id, p.caption AS text FROM Post p " +
+            "WHERE p.id > :after AND p.deletedAt IS NULL AND p.caption IS NOT NULL ORDER BY p.id")
+    List<TextRow> findCaptionsAfter(@Param("after") String after, Pageable pageable);
+
+    // Returns 0 for a post that is gone or tombstoned.
+    @Modifying
+    @Query("UPDATE Post p SET p.viewsCount = p.viewsCount + :views, p.uniqueViewers = :uniqueViewers " +
+            "WHERE p.id = :id AND p.deletedAt IS NULL")
+    int addImpressions(@Param("id") String id, @Param("views") long views, @Param("uniqueViewers") long uniqueViewers);
+
+    @Query("SELECT p.id FROM Post p WHERE p.id > :after ORDER BY p.id")
+    List<String> findIdsAfter(@Param("after") String after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE posts SET " +
+            "likes_count = (SELECT COUNT(*) FROM likes l WHERE l.post_id = posts.id), " +
+            "comments_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id) " +
+            "WHERE id IN (:ids) AND (" +
+            "likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.post_id = posts.id) OR " +
+            "comments_count <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id))",
+            nativeQuery = true)
+    int reconcileCounters(@Param("ids") Collection<String> ids);
 }
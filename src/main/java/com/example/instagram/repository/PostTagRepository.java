@@ -0,0 +1,47 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.model.PostTag;
+import com.example.instagram.model.PostTagId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface PostTagRepository extends JpaRepository<PostTag, PostTagId> {
+
+    // Post ids are time-ordered, so both reads walk the (tag, post_id) primary key backwards.
+    @Query("SELECT t FROM PostTag t WHERE t.id.tag = :tag ORDER BY t.id.postId DESC")
+    List<PostTag> findLatest(@Param("tag") String tag, Pageable pageable);
+
+    @Query("SELECT t FROM PostTag t WHERE t.id.tag = :tag AND t.id.postId < :postId ORDER BY t.id.postId DESC")
+    List<PostTag> findBefore(@Param("tag") String tag, @Param("postId") String postId, Pageable pageable);
+
+    // tags is a JSON array of normalized tags. Flushes first, so it sees a post saved in this transaction.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT OR IGNORE INTO post_tags (tag, post_id, post_created_at) " +
+            "SELECT j.value, p.id, p.created_at FROM posts p, json_each(:tags) j " +
+            "WHERE p.id = :postId AND p.deleted_at IS NULL",
+            nativeQuery = true)
+    int insertForPost(@Param("postId") String postId, @Param("tags") String tags);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT OR IGNORE INTO post_tags (tag, post_id, post_created_at) " +
+            "SELECT j.value, p.id, p.created_at FROM comments c " +
+            "JOIN posts p ON p.id = c.post_id AND p.deleted_at IS NULL, json_each(:tags) j " +
+            "WHERE c.id = :commentId",
+            nativeQuery = true)
+    int insertForComment(@Param("commentId") String commentId, @Param("tags") String tags);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM post_tags WHERE (tag, post_id) IN " +
+            "(SELECT tag, post_id FROM post_tags WHERE post_id = :postId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") String postId, @Param("limit") int limit);
+}
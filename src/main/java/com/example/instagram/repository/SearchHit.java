@@ -0,0 +1,12 @@
+package com.example.instagram.repository;
+
+// One full-text match: the matched row's id, its bm25 rank (lower is better) and the index rowid that
+// breaks ties between equal ranks.
+public interface SearchHit {
+
+    String getId();
+
+    double getRank();
+
+    long getDocid();
+}
@@ -0,0 +1,9 @@
+package com.example.instagram.repository;
+
+// Id and text of a post caption or comment, for reindexing.
+public interface TextRow {
+
+    String getId();
+
+    String getText();
+}
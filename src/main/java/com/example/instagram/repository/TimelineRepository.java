@@ -0,0 +1,58 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.model.TimelineEntry;
+import com.example.instagram.model.TimelineEntryId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TimelineRepository extends JpaRepository<TimelineEntry, TimelineEntryId> {
+
+    // Post ids are time-ordered, so both reads walk the (user_id, post_id) primary key backwards.
+    @Query("SELECT t FROM TimelineEntry t WHERE t.id.userId = :userId ORDER BY t.id.postId DESC")
+    List<TimelineEntry> findLatest(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT t FROM TimelineEntry t WHERE t.id.userId = :userId AND t.id.postId < :postId " +
+            "ORDER BY t.id.postId DESC")
+    List<TimelineEntry> findBefore(@Param("userId") String userId, @Param("postId") String postId, Pageable pageable);
+
+    long countByIdUserId(String userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO timelines (user_id, post_id, post_created_at) " +
+            "SELECT u.id, p.id, p.created_at FROM users u " +
+            "JOIN posts p ON p.id = :postId AND p.deleted_at IS NULL " +
+            "WHERE u.id IN (:userIds)",
+            nativeQuery = true)
+    int fanOut(@Param("postId") String postId, @Param("userIds") Collection<String> userIds);
+
+    @Modifying
+    @Query(value = "INSERT OR IGNORE INTO timelines (user_id, post_id, post_created_at) " +
+            "SELECT :userId, p.id, p.created_at FROM posts p " +
+            "WHERE p.author_id = :authorId AND p.deleted_at IS NULL " +
+            "ORDER BY p.id DESC LIMIT :limit",
+            nativeQuery = true)
+    int backfill(@Param("userId") String userId, @Param("authorId") String authorId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM timelines WHERE user_id = :userId " +
+            "AND post_id IN (SELECT id FROM posts WHERE author_id = :authorId)",
+            nativeQuery = true)
+    int deleteByUserIdAndAuthorId(@Param("userId") String userId, @Param("authorId") String authorId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM timelines WHERE rowid IN " +
+            "(SELECT rowid FROM timelines WHERE post_id = :postId LIMIT :limit)",
+            nativeQuery = true)
+    int deleteChunkByPostId(@Param("postId") String postId, @Param("limit") int limit);
+}
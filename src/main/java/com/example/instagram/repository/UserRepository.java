@@ -2,7 +2,11 @@ package com.example.instagram.repository;
 
 import com.example.instagram.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -16,4 +20,17 @@ public interface UserRepository extends JpaRepository<User, String> {
     boolean existsByEmail(String email);
 
     boolean existsByUsername(String username);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") String id, @Param("passwordHash") String passwordHash);
+
+    // Empty when the user does not exist.
+    @Query("SELECT u.followersCount FROM User u WHERE u.id = :id")
+    Optional<Long> findFollowersCountById(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.followersCount = u.followersCount + :delta WHERE u.id = :id")
+    int incrementFollowersCount(@Param("id") String id, @Param("delta") long delta);
 }
@@ -0,0 +1,83 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.response.AdminMetricsResponse;
+import com.example.instagram.dto.response.EndpointMetricsResponse;
+import com.example.instagram.monitoring.SqlAccountingInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-controller-method view of the meters recorded by SqlAccountingInterceptor. Percentiles cover
+// the last couple of minutes; counts and maxima are since startup and the last window respectively.
+@Service
+@RequiredArgsConstructor
+public class AdminMetricsService {
+
+    private final MeterRegistry meterRegistry;
+
+    public AdminMetricsResponse getMetrics() {
+        List<EndpointMetricsResponse> endpoints = meterRegistry.find(SqlAccountingInterceptor.LATENCY_METRIC)
+                .timers().stream()
+                .map(this::toEndpointMetrics)
+                .sorted(Comparator.comparing(EndpointMetricsResponse::getHandler))
+                .toList();
+
+        Counter slowQueries = meterRegistry.find("sql.slow.queries").counter();
+        return AdminMetricsResponse.builder()
+                .endpoints(endpoints)
+                .slowQueries(slowQueries != null ? (long) slowQueries.count() : 0)
+                .build();
+    }
+
+    private EndpointMetricsResponse toEndpointMetrics(Timer latency) {
+        String handler = latency.getId().getTag("handler");
+        HistogramSnapshot latencies = latency.takeSnapshot();
+        EndpointMetricsResponse.EndpointMetricsResponseBuilder metrics = EndpointMetricsResponse.builder()
+                .handler(handler)
+                .requests(latencies.count())
+                .latencyMeanMs(latencies.mean(TimeUnit.MILLISECONDS))
+                .latencyP50Ms(percentile(latencies, 0.5, TimeUnit.MILLISECONDS))
+                .latencyP95Ms(percentile(latencies, 0.95, TimeUnit.MILLISECONDS))
+                .latencyP99Ms(percentile(latencies, 0.99, TimeUnit.MILLISECONDS))
+                .latencyMaxMs(latencies.max(TimeUnit.MILLISECONDS));
+
+        DistributionSummary statements = meterRegistry.find(SqlAccountingInterceptor.STATEMENTS_METRIC)
+                .tag("handler", handler)
+                .summary();
+        if (statements != null) {
+            HistogramSnapshot snapshot = statements.takeSnapshot();
+            metrics.statementsMean(snapshot.mean())
+                    .statementsP99(percentile(snapshot, 0.99, null))
+                    .statementsMax(snapshot.max());
+        }
+
+        Timer sqlTime = meterRegistry.find(SqlAccountingInterceptor.SQL_TIME_METRIC)
+                .tag("handler", handler)
+                .timer();
+        if (sqlTime != null) {
+            HistogramSnapshot snapshot = sqlTime.takeSnapshot();
+            metrics.sqlTimeMeanMs(snapshot.mean(TimeUnit.MILLISECONDS))
+                    .sqlTimeP99Ms(percentile(snapshot, 0.99, TimeUnit.MILLISECONDS));
+        }
+        return metrics.build();
+    }
+
+    // A null unit reads the raw value, for summaries that are not timers.
+    private static double percentile(HistogramSnapshot snapshot, double percentile, TimeUnit unit) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return unit != null ? value.value(unit) : value.value();
+            }
+        }
+        return 0;
+    }
+}
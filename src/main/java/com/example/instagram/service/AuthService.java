@@ -5,26 +5,50 @@ import com.example.instagram.dto.request.RegisterRequest;
 import com.example.instagram.dto.response.AuthResponse;
 import com.example.instagram.dto.response.AuthorSummary;
 import com.example.instagram.dto.response.UserResponse;
+import com.example.instagram.event.UserChangedEvent;
 import com.example.instagram.exception.ApiException;
 import com.example.instagram.model.User;
 import com.example.instagram.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final WritePipeline writePipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    // Database writes that follow a hash run here, so they never hold one of the few BCrypt threads.
+    private final Executor authExecutor;
+
+    public AuthService(
+            UserRepository userRepository,
+            PasswordHasher passwordHasher,
+            JwtService jwtService,
+            WritePipeline writePipeline,
+            ApplicationEventPublisher eventPublisher,
+            @Qualifier("authExecutor") Executor authExecutor
+    ) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.jwtService = jwtService;
+        this.writePipeline = writePipeline;
+        this.eventPublisher = eventPublisher;
+        this.authExecutor = authExecutor;
+    }
 
-    public UserResponse register(RegisterRequest request) {
+    public CompletableFuture<UserResponse> register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new ApiException(HttpStatus.CONFLICT, "CONFLICT", "Email already exists");
         }
@@ -33,30 +57,59 @@ public class AuthService {
             throw new ApiException(HttpStatus.CONFLICT, "CONFLICT", "Username already exists");
         }
 
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .fullName(request.getFullName())
-                .build();
+        return passwordHasher.encode(request.getPassword())
+                .thenApplyAsync(passwordHash -> {
+                    User user = User.builder()
+                            .username(request.getUsername())
+                            .email(request.getEmail())
+                            .passwordHash(passwordHash)
+                            .fullName(request.getFullName())
+                            .build();
 
-        user = userRepository.save(user);
-        return UserResponse.from(user);
+                    return UserResponse.from(writePipeline.execute(() -> userRepository.save(user)));
+                }, authExecutor);
     }
 
-    public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
+        Optional<User> account = userRepository.findByEmail(request.getEmail());
+        String passwordHash = account.map(User::getPasswordHash).orElse(null);
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ApiException(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "Invalid credentials"));
+        return passwordHasher.matches(request.getPassword(), passwordHash)
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new BadCredentialsException("Invalid credentials");
+                    }
 
-        String token = jwtService.generateToken(user);
+                    User user = account.get();
+                    upgradeHashIfNeeded(user, request.getPassword());
 
-        return AuthResponse.builder()
-                .accessToken(token)
-                .user(AuthorSummary.from(user))
-                .build();
+                    String token = jwtService.generateToken(user);
+
+                    return AuthResponse.builder()
+                            .accessToken(token)
+                            .user(AuthorSummary.from(user))
+                            .build();
+                });
+    }
+
+    // Rehashes with the configured work factor after a successful login, without delaying the response.
+    private void upgradeHashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAcceptAsync(passwordHash -> {
+                        userRepository.updatePasswordHash(user.getId(), passwordHash);
+                        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+                    }, authExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Failed to upgrade password hash for user {}", user.getId(), e);
+                        return null;
+                    });
+        } catch (ApiException e) {
+            // Hashing pool is saturated; the upgrade is retried on a later login.
+        }
     }
 }
@@ -0,0 +1,20 @@
+package com.example.instagram.service;
+
+// Helpers shared by the scheduled jobs that work through a table in chunks (PostPurger,
+// CounterReconciler, TagReindexer, TimeOrderedIdMigration).
+final class BackgroundJobs {
+
+    private BackgroundJobs() {
+    }
+
+    // Returns false if the thread was interrupted, with the interrupt flag set again; the job should stop.
+    static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,31 +1,62 @@
 package com.example.instagram.service;
 
 import com.example.instagram.dto.request.CreateCommentRequest;
+import com.example.instagram.dto.request.PageCursor;
+import com.example.instagram.dto.response.AuthorSummary;
 import com.example.instagram.dto.response.CommentResponse;
+import com.example.instagram.dto.response.CursorPageResponse;
 import com.example.instagram.dto.response.PageResponse;
+import com.example.instagram.event.CommentAddedEvent;
 import com.example.instagram.exception.ApiException;
 import com.example.instagram.model.Comment;
 import com.example.instagram.model.Post;
 import com.example.instagram.model.User;
+import com.example.instagram.repository.CommentExportRow;
 import com.example.instagram.repository.CommentRepository;
 import com.example.instagram.repository.PostRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    private static final int EXPORT_FLUSH_EVERY = 200;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
+    private final TagIndexer tagIndexer;
+    private final WritePipeline writePipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
 
     public CommentResponse addComment(String postId, CreateCommentRequest request, User author) {
-        Post post = postRepository.findById(postId)
+        return writePipeline.execute(() -> insertComment(postId, request, author));
+    }
+
+    private CommentResponse insertComment(String postId, CreateCommentRequest request, User author) {
+        Post post = postRepository.findVisibleById(postId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found"));
 
         Comment comment = Comment.builder()
@@ -35,15 +66,18 @@ public class CommentService {
                 .build();
 
         comment = commentRepository.save(comment);
+        postRepository.incrementCommentsCount(postId, 1);
+        tagIndexer.indexComment(comment.getId(), comment.getText());
+        eventPublisher.publishEvent(new CommentAddedEvent(postId, comment.getId(), author.getId()));
         return CommentResponse.from(comment, author);
     }
 
     public PageResponse<CommentResponse> getComments(String postId, int page, int size) {
-        if (!postRepository.existsById(postId)) {
+        if (!postRepository.existsByIdAndDeletedAtIsNull(postId)) {
             throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found");
         }
 
-        Page<Comment> commentsPage = commentRepository.findByPostIdOrderByCreatedAtDesc(
+        Page<Comment> commentsPage = commentRepository.findByPostIdOrderByIdDesc(
                 postId, PageRequest.of(page, size));
 
         List<CommentResponse> comments = commentsPage.getContent().stream()
@@ -52,4 +86,101 @@ public class CommentService {
 
         return PageResponse.from(commentsPage, comments);
     }
+
+    public CursorPageResponse<CommentResponse> getComments(String postId, String cursor, int size) {
+        if (!postRepository.existsByIdAndDeletedAtIsNull(postId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found");
+        }
+
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByPostId(postId, limit)
+                : commentRepository.findByPostIdBefore(postId, after.getId(), limit);
+
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            Comment last = comments.get(size - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<CommentResponse> content = comments.stream()
+                .map(comment -> CommentResponse.from(comment, comment.getAuthor()))
+                .toList();
+
+        return CursorPageResponse.of(content, nextCursor);
+    }
+
+    // In ids order; comments that no longer exist or belong to a deleted post are skipped.
+    public List<CommentResponse> getCommentsByIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Comment> comments = commentRepository.findAllWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.toMap(Comment::getId, Function.identity()));
+
+        return ids.stream()
+                .filter(comments::containsKey)
+                .map(comments::get)
+                .map(comment -> CommentResponse.from(comment, comment.getAuthor()))
+                .toList();
+    }
+
+    // One JSON object per line, newest first. Rows are pulled from the cursor only as fast as the client
+    // reads: a slow reader blocks the write, which stops iteration, so memory stays constant.
+    public StreamingResponseBody exportComments(String postId) {
+        if (!postRepository.existsByIdAndDeletedAtIsNull(postId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found");
+        }
+
+        return out -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnly.setReadOnly(true);
+            try {
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<CommentExportRow> rows = commentRepository.streamByPostId(postId)) {
+                        writeNdjson(postId, rows.iterator(), out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private void writeNdjson(String postId, Iterator<CommentExportRow> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+
+        int written = 0;
+        while (rows.hasNext()) {
+            writer.writeValue(json, toResponse(postId, rows.next()));
+            json.writeRaw('\n');
+            if (++written % EXPORT_FLUSH_EVERY == 0) {
+                json.flush();
+            }
+        }
+        json.close();
+    }
+
+    private static CommentResponse toResponse(String postId, CommentExportRow row) {
+        return CommentResponse.builder()
+                .id(row.getId())
+                .postId(postId)
+                .text(row.getText())
+                .author(AuthorSummary.builder()
+                        .id(row.getAuthorId())
+                        .username(row.getAuthorUsername())
+                        .avatarUrl(row.getAuthorAvatarUrl())
+                        .build())
+                .createdAt(row.getCreatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,150 @@
+package com.example.instagram.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Server-wide limit on requests in flight that adapts to latency.
+//
+// Each window, the average latency of the requests that completed is compared with a long-term average
+// taken over about LONG_WINDOWS windows. While latency stays within `tolerance` of the long-term average,
+// the limit grows by about sqrt(limit) per window. When it rises further, the limit is cut in proportion,
+// by at most half per window. Windows in which demand used less than half the limit leave it alone, so a
+// quiet server does not drift to max-limit. The long-term average is pulled down faster when latency falls
+// well below it, so the limit recovers after an overload.
+//
+// Reads may use the whole limit, writes only write-share of it. Under contention writes are refused
+// first and feed reads keep being served.
+@Component
+public class ConcurrencyLimiter {
+
+    public enum Priority { READ, WRITE }
+
+    private static final int LONG_WINDOWS = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double writeShare;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+
+    // Fractional, so that small per-window steps add up.
+    private volatile double limit;
+    // Only touched by adjust(), which the scheduler never runs concurrently with itself.
+    private double longLatencyNanos;
+
+    public ConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${load-shedding.initial-limit:20}") int initialLimit,
+            @Value("${load-shedding.min-limit:4}") int minLimit,
+            @Value("${load-shedding.max-limit:200}") int maxLimit,
+            @Value("${load-shedding.write-share:0.7}") double writeShare,
+            @Value("${load-shedding.tolerance:1.5}") double tolerance,
+            @Value("${load-shedding.smoothing:0.2}") double smoothing
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.writeShare = writeShare;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+
+        Gauge.builder("http.server.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests currently in flight")
+                .register(meterRegistry);
+        this.rejectedReads = rejectedCounter(meterRegistry, Priority.READ);
+        this.rejectedWrites = rejectedCounter(meterRegistry, Priority.WRITE);
+    }
+
+    // The limit is a field of this bean, so its gauge is registered once construction has finished.
+    @PostConstruct
+    void registerLimitGauge() {
+        Gauge.builder("http.server.concurrency.limit", this, ConcurrencyLimiter::limit)
+                .description("Requests currently allowed in flight")
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, Priority priority) {
+        return Counter.builder("http.server.concurrency.rejected")
+                .description("Requests refused with 503 because the concurrency limit was reached")
+                .tag("priority", priority.name())
+                .register(meterRegistry);
+    }
+
+    // Returns false, without taking a slot, if the request should be shed. Each true must be matched by
+    // one release().
+    public boolean tryAcquire(Priority priority) {
+        double current = limit;
+        int allowed = (int) Math.max(1, priority == Priority.WRITE ? current * writeShare : current);
+        while (true) {
+            int running = inFlight.get();
+            if (running >= allowed) {
+                (priority == Priority.WRITE ? rejectedWrites : rejectedReads).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                peakInFlight.accumulateAndGet(running + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    // Pass a negative latency for requests that should not count towards the measurements.
+    public void release(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        if (elapsedNanos >= 0) {
+            latencyNanos.add(elapsedNanos);
+            completed.increment();
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    @Scheduled(fixedDelayString = "${load-shedding.window-ms:100}")
+    public void adjust() {
+        long samples = completed.sumThenReset();
+        long totalNanos = latencyNanos.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+
+        double shortLatency = (double) totalNanos / samples;
+        if (longLatencyNanos == 0) {
+            longLatencyNanos = shortLatency;
+        } else {
+            longLatencyNanos += (shortLatency - longLatencyNanos) / LONG_WINDOWS;
+            if (longLatencyNanos / shortLatency > 2) {
+                longLatencyNanos *= 0.95;
+            }
+        }
+
+        double current = limit;
+        if (peak < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatencyNanos / shortLatency));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
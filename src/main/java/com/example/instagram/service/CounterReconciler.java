@@ -0,0 +1,54 @@
+package com.example.instagram.service;
+
+import com.example.instagram.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CounterReconciler {
+
+    private final PostRepository postRepository;
+
+    @Value("${counters.reconcile.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${counters.reconcile.pause-ms:50}")
+    private long pauseMs;
+
+    // Each chunk is a single UPDATE in its own transaction, so the SQLite write lock is only held
+    // for one chunk at a time and request writers can get in between chunks.
+    @Scheduled(
+            initialDelayString = "${counters.reconcile.initial-delay-ms:60000}",
+            fixedDelayString = "${counters.reconcile.interval-ms:3600000}"
+    )
+    public void reconcile() {
+        String after = "";
+        int fixed = 0;
+
+        while (true) {
+            List<String> ids = postRepository.findIdsAfter(after, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            fixed += postRepository.reconcileCounters(ids);
+            after = ids.get(ids.size() - 1);
+
+            if (!BackgroundJobs.pause(pauseMs)) {
+                return;
+            }
+        }
+
+        if (fixed > 0) {
+            log.info("Reconciled like/comment counters on {} posts", fixed);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.response.FollowResponse;
+import com.example.instagram.event.UserChangedEvent;
+import com.example.instagram.exception.ApiException;
+import com.example.instagram.model.Follow;
+import com.example.instagram.model.FollowId;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.FollowRepository;
+import com.example.instagram.repository.TimelineRepository;
+import com.example.instagram.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class FollowService {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final TimelineRepository timelineRepository;
+    private final WritePipeline writePipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${timeline.follow-backfill-size:50}")
+    private int backfillSize;
+
+    public FollowResponse follow(String userId, User currentUser) {
+        return writePipeline.execute(() -> insertFollow(userId, currentUser));
+    }
+
+    public FollowResponse unfollow(String userId, User currentUser) {
+        return writePipeline.execute(() -> deleteFollow(userId, currentUser));
+    }
+
+    private FollowResponse insertFollow(String userId, User currentUser) {
+        if (userId.equals(currentUser.getId())) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "You cannot follow yourself");
+        }
+
+        User followee = userRepository.findById(userId)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "User not found"));
+
+        FollowId followId = new FollowId(currentUser.getId(), userId);
+
+        if (followRepository.existsById(followId)) {
+            throw new ApiException(HttpStatus.CONFLICT, "CONFLICT", "User already followed");
+        }
+
+        Follow follow = Follow.builder()
+                .id(followId)
+                .follower(currentUser)
+                .followee(followee)
+                .build();
+
+        followRepository.save(follow);
+        userRepository.incrementFollowersCount(userId, 1);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        timelineRepository.backfill(currentUser.getId(), userId, backfillSize);
+
+        return buildFollowResponse(userId);
+    }
+
+    private FollowResponse deleteFollow(String userId, User currentUser) {
+        if (!userRepository.existsById(userId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "User not found");
+        }
+
+        FollowId followId = new FollowId(currentUser.getId(), userId);
+
+        if (!followRepository.existsById(followId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Follow not found");
+        }
+
+        followRepository.deleteById(followId);
+        userRepository.incrementFollowersCount(userId, -1);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        timelineRepository.deleteByUserIdAndAuthorId(currentUser.getId(), userId);
+
+        return buildFollowResponse(userId);
+    }
+
+    private FollowResponse buildFollowResponse(String userId) {
+        return FollowResponse.builder()
+                .userId(userId)
+                .followersCount(userRepository.findFollowersCountById(userId)
+                        .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "User not found")))
+                .build();
+    }
+}
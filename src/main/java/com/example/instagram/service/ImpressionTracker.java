@@ -0,0 +1,218 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.ImpressionsFlushedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.model.PostImpression;
+import com.example.instagram.repository.PostImpressionRepository;
+import com.example.instagram.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Counts post impressions in memory: per post, a HyperLogLog sketch of distinct viewers and a striped
+// counter of views. Nothing is written on the request path. Each flush merges the sketches into the
+// stored ones (post_impressions) and adds the views to posts.views_count, one chunk per transaction.
+//
+// Memory is bounded by max-pending-posts sketches of 1 KiB each, whatever the number of viewers.
+// Impressions of further posts until the next flush are dropped and counted. Impressions recorded
+// after the last flush are lost if the process dies.
+@Slf4j
+@Component
+public class ImpressionTracker {
+
+    private final PostRepository postRepository;
+    private final PostImpressionRepository postImpressionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final int maxPendingPosts;
+    private final int chunkSize;
+    private final Counter dropped;
+
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    public ImpressionTracker(
+            PostRepository postRepository,
+            PostImpressionRepository postImpressionRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${impressions.max-pending-posts:20000}") int maxPendingPosts,
+            @Value("${impressions.flush.chunk-size:500}") int chunkSize
+    ) {
+        this.postRepository = postRepository;
+        this.postImpressionRepository = postImpressionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.maxPendingPosts = maxPendingPosts;
+        this.chunkSize = chunkSize;
+
+        this.dropped = Counter.builder("impressions.dropped")
+                .description("Impressions not recorded because max-pending-posts was reached")
+                .register(meterRegistry);
+    }
+
+    // Flushes swap the pending map, so the gauge reads it through this bean, once construction has finished.
+    @PostConstruct
+    void registerPendingGauge() {
+        Gauge.builder("impressions.pending.posts", this, tracker -> tracker.pending.size())
+                .register(meterRegistry);
+    }
+
+    public void record(Collection<String> postIds, String viewerId) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        long hash = HyperLogLog.hash(viewerId);
+        flushLock.readLock().lock();
+        try {
+            Map<String, Pending> current = pending;
+            for (String postId : postIds) {
+                Pending impressions = current.get(postId);
+                if (impressions == null) {
+                    if (current.size() >= maxPendingPosts) {
+                        dropped.increment();
+                        continue;
+                    }
+                    impressions = current.computeIfAbsent(postId, id -> new Pending());
+                }
+                impressions.record(hash);
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${impressions.flush.interval-ms:30000}",
+            fixedDelayString = "${impressions.flush.interval-ms:30000}"
+    )
+    public void flush() {
+        Map<String, Pending> flushing;
+        flushLock.writeLock().lock();
+        try {
+            flushing = pending;
+            if (flushing.isEmpty()) {
+                return;
+            }
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        List<Map.Entry<String, Pending>> entries = new ArrayList<>(flushing.entrySet());
+        for (int start = 0; start < entries.size(); start += chunkSize) {
+            List<Map.Entry<String, Pending>> chunk = entries.subList(start, Math.min(entries.size(), start + chunkSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeChunk(chunk));
+            } catch (RuntimeException e) {
+                log.error("Failed to flush impressions of {} posts", chunk.size(), e);
+            }
+        }
+    }
+
+    // Impressions not yet flushed follow a post renamed by TimeOrderedIdMigration to its new id.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        flushLock.writeLock().lock();
+        try {
+            Pending impressions = pending.remove(event.oldPostId());
+            if (impressions != null) {
+                pending.merge(event.newPostId(), impressions, Pending::add);
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void writeChunk(List<Map.Entry<String, Pending>> chunk) {
+        Map<String, PostImpression> stored = postImpressionRepository
+                .findAllById(chunk.stream().map(Map.Entry::getKey).toList()).stream()
+                .collect(Collectors.toMap(PostImpression::getPostId, Function.identity()));
+
+        Map<String, Long> viewsDeltas = new HashMap<>();
+        Map<String, Long> uniqueViewers = new HashMap<>();
+
+        for (Map.Entry<String, Pending> entry : chunk) {
+            String postId = entry.getKey();
+            Pending impressions = entry.getValue();
+
+            PostImpression row = stored.get(postId);
+            HyperLogLog sketch = row == null ? new HyperLogLog() : storedSketch(row);
+            sketch.merge(impressions.viewers);
+
+            long views = impressions.views.sum();
+            long estimate = sketch.estimate();
+            if (postRepository.addImpressions(postId, views, estimate) == 0) {
+                continue;
+            }
+
+            if (row == null) {
+                row = PostImpression.builder().postId(postId).build();
+            }
+            row.setSketch(sketch.toBytes());
+            postImpressionRepository.save(row);
+
+            viewsDeltas.put(postId, views);
+            uniqueViewers.put(postId, estimate);
+        }
+
+        eventPublisher.publishEvent(new ImpressionsFlushedEvent(viewsDeltas, uniqueViewers));
+    }
+
+    // A corrupt stored sketch is replaced rather than failing the flush of the whole chunk on every run.
+    private static HyperLogLog storedSketch(PostImpression row) {
+        try {
+            return HyperLogLog.fromBytes(row.getSketch());
+        } catch (IllegalArgumentException e) {
+            log.warn("Discarding corrupt viewer sketch of post {}: {}", row.getPostId(), e.getMessage());
+            return new HyperLogLog();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    private static final class Pending {
+
+        private final HyperLogLog viewers = new HyperLogLog();
+        private final LongAdder views = new LongAdder();
+
+        private void record(long viewerHash) {
+            viewers.offerHash(viewerHash);
+            views.increment();
+        }
+
+        private Pending add(Pending other) {
+            viewers.merge(other.viewers);
+            views.add(other.views.sum());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.response.AuthorSummary;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.event.PostDeletedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.event.UserChangedEvent;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+// Pre-encoded JSON for the parts of a post response that never change (id, image, caption, creation
+// time) and for author summaries, spliced into responses by PostResponseSerializer. SerializedString
+// keeps its UTF-8 bytes after first use, so a hit is a byte copy. Post fragments are dropped when the
+// post is deleted or its id changes, author fragments when the user changes.
+@Component
+public class JsonFragmentCache {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private final Cache<String, PostFragment> posts;
+    private final Cache<String, SerializableString> authors;
+
+    public JsonFragmentCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.json-fragments.max-posts:20000}") long maxPosts,
+            @Value("${cache.json-fragments.max-authors:20000}") long maxAuthors
+    ) {
+        this.posts = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .recordStats()
+                .build();
+        this.authors = Caffeine.newBuilder()
+                .maximumSize(maxAuthors)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, posts, "postFragments");
+        CaffeineCacheMetrics.monitor(meterRegistry, authors, "authorFragments");
+    }
+
+    // {"id":..,"imageUrl":..,"caption":..,"author":   and   ,"createdAt":..}
+    public PostFragment post(PostResponse post) {
+        return posts.get(post.getId(), id -> {
+            StringBuilder head = new StringBuilder("{\"id\":");
+            appendString(head, post.getId());
+            head.append(",\"imageUrl\":");
+            appendString(head, post.getImageUrl());
+            head.append(",\"caption\":");
+            appendString(head, post.getCaption());
+            head.append(",\"author\":");
+
+            StringBuilder tail = new StringBuilder(",\"createdAt\":");
+            appendInstant(tail, post.getCreatedAt());
+            tail.append('}');
+
+            return new PostFragment(new SerializedString(head.toString()), new SerializedString(tail.toString()));
+        });
+    }
+
+    public SerializableString author(AuthorSummary author) {
+        return authors.get(author.getId(), id -> {
+            StringBuilder json = new StringBuilder("{\"id\":");
+            appendString(json, author.getId());
+            json.append(",\"username\":");
+            appendString(json, author.getUsername());
+            json.append(",\"avatarUrl\":");
+            appendString(json, author.getAvatarUrl());
+            json.append('}');
+            return new SerializedString(json.toString());
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        posts.invalidate(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        posts.invalidate(event.oldPostId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        authors.invalidate(event.userId());
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"').append(ENCODER.quoteAsString(value)).append('"');
+    }
+
+    // Matches Jackson's InstantSerializer with WRITE_DATES_AS_TIMESTAMPS disabled (ISO-8601, UTC).
+    private static void appendInstant(StringBuilder json, Instant value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"').append(value).append('"');
+    }
+
+    public record PostFragment(SerializableString head, SerializableString tail) {
+    }
+}
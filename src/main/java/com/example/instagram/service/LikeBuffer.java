@@ -0,0 +1,210 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.LikesFlushedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.exception.ApiException;
+import com.example.instagram.model.LikeId;
+import com.example.instagram.repository.LikeRepository;
+import com.example.instagram.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind buffer for likes. Requests only touch the in-memory maps below; a background
+// flusher applies the net result to the likes table in batched transactions.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeBuffer {
+
+    private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Latest unflushed intent per (user, post). A like followed by an unlike (or vice versa)
+    // removes the entry, so the pair never reaches the database.
+    private final ConcurrentHashMap<LikeId, Intent> intents = new ConcurrentHashMap<>();
+
+    // Net effect of unflushed intents per post. Entries remove themselves when they reach zero.
+    private final ConcurrentHashMap<String, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Getter
+    @Value("${likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${likes.write-behind.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public void like(String postId, String userId, boolean likedInDb) {
+        record(new LikeId(userId, postId), true, likedInDb);
+    }
+
+    public void unlike(String postId, String userId, boolean likedInDb) {
+        record(new LikeId(userId, postId), false, likedInDb);
+    }
+
+    public boolean isLiked(String postId, String userId, boolean likedInDb) {
+        Intent intent = intents.get(new LikeId(userId, postId));
+        return intent == null ? likedInDb : intent.like;
+    }
+
+    public long pendingDelta(String postId) {
+        return pendingDeltas.getOrDefault(postId, 0L);
+    }
+
+    private void record(LikeId key, boolean like, boolean likedInDb) {
+        intents.compute(key, (k, current) -> {
+            boolean liked = current == null ? likedInDb : current.like;
+            if (liked == like) {
+                throw like
+                        ? new ApiException(HttpStatus.CONFLICT, "CONFLICT", "Post already liked")
+                        : new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Like not found");
+            }
+            // An in-flight intent will be committed, so the new one has to be written after it.
+            if (current != null && !current.flushing) {
+                return null;
+            }
+            return new Intent(like);
+        });
+        addDelta(key.getPostId(), like ? 1 : -1);
+    }
+
+    private void addDelta(String postId, long delta) {
+        pendingDeltas.merge(postId, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    @Scheduled(fixedDelayString = "${likes.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (enabled) {
+            drain(maxBatchSize);
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        while (!intents.isEmpty()) {
+            if (drain(maxBatchSize) == 0) {
+                log.warn("Dropping {} buffered like intents that could not be flushed", intents.size());
+                return;
+            }
+        }
+    }
+
+    private int drain(int limit) {
+        flushLock.lock();
+        try {
+            List<Map.Entry<LikeId, Intent>> batch = claim(limit);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                Map<String, Long> counterDeltas = write(batch);
+                eventPublisher.publishEvent(new LikesFlushedEvent(counterDeltas));
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} buffered like intents, will retry", batch.size(), e);
+                batch.forEach(entry -> entry.getValue().flushing = false);
+                return 0;
+            }
+
+            for (Map.Entry<LikeId, Intent> entry : batch) {
+                Intent intent = entry.getValue();
+                intents.remove(entry.getKey(), intent);
+                addDelta(entry.getKey().getPostId(), intent.like ? -1 : 1);
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Unflushed intents follow a post renamed by TimeOrderedIdMigration to its new id. No intent is being
+    // written while the flush lock is held. An intent already recorded under the new id wins.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        flushLock.lock();
+        try {
+            for (LikeId key : intents.keySet()) {
+                if (!key.getPostId().equals(event.oldPostId())) {
+                    continue;
+                }
+                Intent intent = intents.remove(key);
+                if (intent != null && intents.putIfAbsent(new LikeId(key.getUserId(), event.newPostId()), intent) != null) {
+                    addDelta(event.oldPostId(), intent.like ? -1 : 1);
+                }
+            }
+            Long delta = pendingDeltas.remove(event.oldPostId());
+            if (delta != null) {
+                addDelta(event.newPostId(), delta);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<Map.Entry<LikeId, Intent>> claim(int limit) {
+        List<Map.Entry<LikeId, Intent>> batch = new ArrayList<>();
+        for (LikeId key : intents.keySet()) {
+            if (batch.size() >= limit) {
+                break;
+            }
+            // Claim under the key's lock so a concurrent cancel cannot slip in between.
+            Intent claimed = intents.computeIfPresent(key, (k, intent) -> {
+                intent.flushing = true;
+                return intent;
+            });
+            if (claimed != null) {
+                batch.add(Map.entry(key, claimed));
+            }
+        }
+        return batch;
+    }
+
+    private Map<String, Long> write(List<Map.Entry<LikeId, Intent>> batch) {
+        return transactionTemplate.execute(status -> {
+            Map<String, Long> counterDeltas = new HashMap<>();
+            Instant now = Instant.now();
+
+            for (Map.Entry<LikeId, Intent> entry : batch) {
+                LikeId key = entry.getKey();
+                long changed = entry.getValue().like
+                        ? likeRepository.insertIfAbsent(key.getUserId(), key.getPostId(), now)
+                        : -likeRepository.deleteByUserIdAndPostId(key.getUserId(), key.getPostId());
+                counterDeltas.merge(key.getPostId(), changed, Long::sum);
+            }
+
+            counterDeltas.values().removeIf(delta -> delta == 0);
+            counterDeltas.forEach(postRepository::incrementLikesCount);
+            return counterDeltas;
+        });
+    }
+
+    private static final class Intent {
+
+        private final boolean like;
+        private volatile boolean flushing;
+
+        private Intent(boolean like) {
+            this.like = like;
+        }
+    }
+}
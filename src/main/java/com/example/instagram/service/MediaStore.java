@@ -0,0 +1,188 @@
+package com.example.instagram.service;
+
+import com.example.instagram.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Uploaded images on local disk, named by the SHA-256 of their bytes: <dir>/<first two hex digits>/<hash>.<ext>.
+// An upload is copied through a fixed buffer into a temporary file while it is hashed, then moved into
+// place. Uploading bytes that are already stored just drops the temporary file. Files are never
+// rewritten, so they can be cached forever. The type comes from the file's leading bytes, not from
+// what the client declared.
+@Slf4j
+@Component
+public class MediaStore {
+
+    public static final String URL_PREFIX = "/media/";
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_PREFIX = "upload-";
+
+    private final Path root;
+    private final Counter stored;
+    private final Counter duplicates;
+
+    public MediaStore(
+            MeterRegistry meterRegistry,
+            @Value("${media.storage-dir:media}") String storageDir
+    ) {
+        this.root = Path.of(storageDir).toAbsolutePath();
+        this.stored = Counter.builder("media.uploads").tag("result", "stored").register(meterRegistry);
+        this.duplicates = Counter.builder("media.uploads").tag("result", "duplicate").register(meterRegistry);
+    }
+
+    public record Media(String id, MediaType contentType, long size) {
+
+        public String url() {
+            return URL_PREFIX + id;
+        }
+    }
+
+    // Temporary files left by uploads interrupted by a crash.
+    @PostConstruct
+    void cleanUp() throws IOException {
+        Files.createDirectories(root);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(root, TEMP_PREFIX + "*.tmp")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    public Media store(MultipartFile file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] header = new byte[12];
+        int headerLength = 0;
+        long size = 0;
+
+        Path temp = Files.createTempFile(root, TEMP_PREFIX, ".tmp");
+        try {
+            try (ReadableByteChannel in = Channels.newChannel(file.getInputStream());
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    int copied = Math.min(header.length - headerLength, buffer.remaining());
+                    buffer.get(buffer.position(), header, headerLength, copied);
+                    headerLength += copied;
+                    size += buffer.remaining();
+
+                    digest.update(buffer);
+                    buffer.rewind();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(true);
+            }
+
+            String extension = sniffExtension(header, headerLength);
+            if (extension == null) {
+                throw new ApiException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "UNSUPPORTED_MEDIA_TYPE",
+                        "Only JPEG, PNG, GIF and WebP images are accepted");
+            }
+
+            String id = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+            Path target = path(id);
+            if (Files.exists(target)) {
+                duplicates.increment();
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                stored.increment();
+                log.debug("Stored {} ({} bytes)", id, size);
+            }
+            return new Media(id, contentType(id), size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Empty for ids that are malformed or not stored.
+    public Optional<Path> find(String id) {
+        if (!ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Path path = path(id);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    // Image URLs on our own media path must name a stored file; other URLs are accepted as they are.
+    public void checkReference(String imageUrl) {
+        if (imageUrl.startsWith(URL_PREFIX) && find(imageUrl.substring(URL_PREFIX.length())).isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "Image has not been uploaded");
+        }
+    }
+
+    public static MediaType contentType(String id) {
+        return switch (id.substring(id.lastIndexOf('.') + 1)) {
+            case "jpg" -> MediaType.IMAGE_JPEG;
+            case "png" -> MediaType.IMAGE_PNG;
+            case "gif" -> MediaType.IMAGE_GIF;
+            case "webp" -> MediaType.parseMediaType("image/webp");
+            default -> MediaType.APPLICATION_OCTET_STREAM;
+        };
+    }
+
+    private Path path(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private static String sniffExtension(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xff) == 0xff && (header[1] & 0xff) == 0xd8 && (header[2] & 0xff) == 0xff) {
+            return "jpg";
+        }
+        if (length >= 8 && startsWith(header, 0, new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'})) {
+            return "png";
+        }
+        if (length >= 6 && (startsWith(header, 0, "GIF87a".getBytes()) || startsWith(header, 0, "GIF89a".getBytes()))) {
+            return "gif";
+        }
+        if (length >= 12 && startsWith(header, 0, "RIFF".getBytes()) && startsWith(header, 8, "WEBP".getBytes())) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
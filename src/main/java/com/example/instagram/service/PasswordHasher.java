@@ -0,0 +1,105 @@
+package com.example.instagram.service;
+
+import com.example.instagram.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs BCrypt on a small dedicated pool so a login storm cannot occupy every request thread.
+// When the queue is full, callers get a 503 instead of waiting.
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+    private final String dummyHash;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.password.hash-threads:4}") int threads,
+            @Value("${security.password.hash-queue-capacity:64}") int queueCapacity
+    ) {
+        this.passwordEncoder = passwordEncoder;
+
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                new CustomizableThreadFactory("password-hash-"), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hash.queue.depth", queue, BlockingQueue::size)
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hash.latency")
+                .description("Time from submission to completion, including queueing")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.hash.latency")
+                .description("Time from submission to completion, including queueing")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.hash.rejected").register(meterRegistry);
+
+        // Compared against when the account does not exist, so unknown emails cost the same as wrong passwords.
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    // A null hash is treated as an unknown account and never matches.
+    public CompletableFuture<Boolean> matches(String rawPassword, String hash) {
+        return submit(matchTimer, () -> {
+            boolean matches = passwordEncoder.matches(rawPassword, hash != null ? hash : dummyHash);
+            return matches && hash != null;
+        });
+    }
+
+    public boolean needsRehash(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE",
+                    "Too many sign-in requests, please retry shortly");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.event.CommentAddedEvent;
+import com.example.instagram.event.ImpressionsFlushedEvent;
+import com.example.instagram.event.LikesFlushedEvent;
+import com.example.instagram.event.PostDeletedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.event.PostLikedEvent;
+import com.example.instagram.event.UserChangedEvent;
+import com.example.instagram.model.LikeId;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bounded cache of post bodies (everything except isLiked) and, separately, of per-viewer liked bits.
+// Entries are patched or dropped from write events after commit, including changes to a post's author;
+// the TTL bounds anything a race misses.
+@Component
+public class PostCache {
+
+    private final Cache<String, PostResponse> bodies;
+    private final Cache<LikeId, Boolean> likedBits;
+
+    public PostCache(
+            MeterRegistry meterRegistry,
+            @Value("${cache.posts.max-size:10000}") long maxPosts,
+            @Value("${cache.posts.ttl-seconds:60}") long postTtlSeconds,
+            @Value("${cache.liked.max-size:100000}") long maxLikedBits,
+            @Value("${cache.liked.ttl-seconds:300}") long likedTtlSeconds
+    ) {
+        this.bodies = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .expireAfterWrite(Duration.ofSeconds(postTtlSeconds))
+                .recordStats()
+                .build();
+        this.likedBits = Caffeine.newBuilder()
+                .maximumSize(maxLikedBits)
+                .expireAfterWrite(Duration.ofSeconds(likedTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "postBodies");
+        CaffeineCacheMetrics.monitor(meterRegistry, likedBits, "postLikedBits");
+    }
+
+    // Missing posts are simply absent from the result.
+    public Map<String, PostResponse> getBodies(
+            Collection<String> postIds,
+            Function<Set<String>, Map<String, PostResponse>> loader
+    ) {
+        return bodies.getAll(postIds, missing -> loader.apply(Set.copyOf(missing)));
+    }
+
+    public Set<String> getLikedPostIds(
+            String userId,
+            Collection<String> postIds,
+            Function<Set<String>, Set<String>> loader
+    ) {
+        Set<LikeId> keys = postIds.stream()
+                .map(postId -> new LikeId(userId, postId))
+                .collect(Collectors.toSet());
+
+        Map<LikeId, Boolean> bits = likedBits.getAll(keys, missing -> {
+            Set<String> missingPostIds = missing.stream().map(LikeId::getPostId).collect(Collectors.toSet());
+            Set<String> liked = loader.apply(missingPostIds);
+            return missing.stream().collect(Collectors.toMap(
+                    Function.identity(), key -> liked.contains(key.getPostId())));
+        });
+
+        return bits.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(entry -> entry.getKey().getPostId())
+                .collect(Collectors.toSet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        likedBits.put(new LikeId(event.userId(), event.postId()), event.liked());
+        if (event.likesCountDelta() != 0) {
+            patchLikesCount(event.postId(), event.likesCountDelta());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikesFlushed(LikesFlushedEvent event) {
+        event.likesCountDeltas().forEach(this::patchLikesCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        bodies.asMap().computeIfPresent(event.postId(), (postId, body) -> body.toBuilder()
+                .commentsCount(body.getCommentsCount() + 1)
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImpressionsFlushed(ImpressionsFlushedEvent event) {
+        event.viewsCountDeltas().forEach((postId, delta) ->
+                bodies.asMap().computeIfPresent(postId, (id, body) -> body.toBuilder()
+                        .viewsCount(body.getViewsCount() + delta)
+                        .uniqueViewers(event.uniqueViewers().get(postId))
+                        .build()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        bodies.invalidate(event.postId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        bodies.invalidate(event.oldPostId());
+    }
+
+    // Bodies embed the author summary. Bodies are keyed by post, so this walks the cache, which
+    // max-size bounds.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        bodies.asMap().values().removeIf(body -> body.getAuthor().getId().equals(event.userId()));
+    }
+
+    private void patchLikesCount(String postId, long delta) {
+        bodies.asMap().computeIfPresent(postId, (id, body) -> body.toBuilder()
+                .likesCount(body.getLikesCount() + delta)
+                .build());
+    }
+}
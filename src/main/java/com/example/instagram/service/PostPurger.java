@@ -0,0 +1,93 @@
+package com.example.instagram.service;
+
+import com.example.instagram.repository.CommentRepository;
+import com.example.instagram.repository.LikeRepository;
+import com.example.instagram.repository.MentionRepository;
+import com.example.instagram.repository.PostImpressionRepository;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.PostTagRepository;
+import com.example.instagram.repository.TimelineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+// Physically removes tombstoned posts. A viral post can have hundreds of thousands of likes and
+// timeline rows, so they are deleted in bounded chunks, each in its own transaction, with a pause
+// in between so request writers get the SQLite write lock. The post row goes last, once nothing
+// references it.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostPurger {
+
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final CommentRepository commentRepository;
+    private final TimelineRepository timelineRepository;
+    private final PostTagRepository postTagRepository;
+    private final MentionRepository mentionRepository;
+    private final PostImpressionRepository postImpressionRepository;
+
+    @Value("${posts.purge.batch-size:50}")
+    private int batchSize;
+
+    @Value("${posts.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${posts.purge.pause-ms:50}")
+    private long pauseMs;
+
+    @Scheduled(
+            initialDelayString = "${posts.purge.initial-delay-ms:30000}",
+            fixedDelayString = "${posts.purge.interval-ms:60000}"
+    )
+    public void purge() {
+        int purged = 0;
+
+        while (true) {
+            List<String> postIds = postRepository.findDeletedIds(PageRequest.of(0, batchSize));
+            if (postIds.isEmpty()) {
+                break;
+            }
+
+            int purgedInBatch = 0;
+            for (String postId : postIds) {
+                if (!drain(postId, likeRepository::deleteChunkByPostId)
+                        || !drain(postId, commentRepository::deleteChunkByPostId)
+                        || !drain(postId, timelineRepository::deleteChunkByPostId)
+                        || !drain(postId, postTagRepository::deleteChunkByPostId)
+                        || !drain(postId, mentionRepository::deleteChunkByPostId)) {
+                    return;
+                }
+                postImpressionRepository.deleteByPostId(postId);
+                purgedInBatch += postRepository.purgeDeleted(postId);
+            }
+
+            // Something still references every post in the batch; leave them for the next run.
+            if (purgedInBatch == 0) {
+                break;
+            }
+            purged += purgedInBatch;
+        }
+
+        if (purged > 0) {
+            log.info("Purged {} deleted posts", purged);
+        }
+    }
+
+    // Returns false if interrupted.
+    private boolean drain(String postId, BiFunction<String, Integer, Integer> deleteChunk) {
+        while (deleteChunk.apply(postId, chunkSize) > 0) {
+            if (!BackgroundJobs.pause(pauseMs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,25 +1,35 @@
 package com.example.instagram.service;
 
 import com.example.instagram.dto.request.CreatePostRequest;
+import com.example.instagram.dto.request.PageCursor;
+import com.example.instagram.dto.response.CursorPageResponse;
 import com.example.instagram.dto.response.LikeResponse;
 import com.example.instagram.dto.response.PageResponse;
 import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.event.PostCreatedEvent;
+import com.example.instagram.event.PostDeletedEvent;
+import com.example.instagram.event.PostLikedEvent;
 import com.example.instagram.exception.ApiException;
 import com.example.instagram.model.Like;
 import com.example.instagram.model.LikeId;
 import com.example.instagram.model.Post;
 import com.example.instagram.model.User;
-import com.example.instagram.repository.CommentRepository;
 import com.example.instagram.repository.LikeRepository;
 import com.example.instagram.repository.PostRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,9 +37,25 @@ public class PostService {
 
     private final PostRepository postRepository;
     private final LikeRepository likeRepository;
-    private final CommentRepository commentRepository;
+    private final TimelineService timelineService;
+    private final LikeBuffer likeBuffer;
+    private final PostCache postCache;
+    private final TagIndexer tagIndexer;
+    private final TrendingRanker trendingRanker;
+    private final ImpressionTracker impressionTracker;
+    private final MediaStore mediaStore;
+    private final WritePipeline writePipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${timeline.max-offset:1000}")
+    private int maxOffset;
 
     public PostResponse createPost(CreatePostRequest request, User author) {
+        mediaStore.checkReference(request.getImageUrl());
+        return writePipeline.execute(() -> insertPost(request, author));
+    }
+
+    private PostResponse insertPost(CreatePostRequest request, User author) {
         Post post = Post.builder()
                 .author(author)
                 .imageUrl(request.getImageUrl())
@@ -37,49 +63,131 @@ public class PostService {
                 .build();
 
         post = postRepository.save(post);
+        tagIndexer.indexPost(post.getId(), post.getCaption());
+        eventPublisher.publishEvent(new PostCreatedEvent(post.getId(), author.getId()));
         return PostResponse.from(post, author, 0, 0, false);
     }
 
+    // Offset mode is kept for compatibility. It reads the timeline up to the end of the requested page,
+    // because pulled celebrity posts are merged in at read time, so pages past max-offset are refused.
     public PageResponse<PostResponse> getFeed(int page, int size, User currentUser) {
-        Page<Post> postsPage = postRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(page, size));
-
-        List<PostResponse> posts = postsPage.getContent().stream()
-                .map(post -> {
-                    long likesCount = likeRepository.countByPostId(post.getId());
-                    long commentsCount = commentRepository.countByPostId(post.getId());
-                    boolean isLiked = likeRepository.existsById(new LikeId(currentUser.getId(), post.getId()));
-                    return PostResponse.from(post, post.getAuthor(), likesCount, commentsCount, isLiked);
-                })
-                .toList();
+        if ((long) page * size > maxOffset) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "page is too large; use cursor pagination");
+        }
+        PageRequest pageRequest = PageRequest.of(page, size);
+
+        List<TimelineService.Item> slice = timelineService.readSlice(currentUser.getId(), null, (page + 1) * size);
+        List<TimelineService.Item> content =
+                slice.subList(Math.min((int) pageRequest.getOffset(), slice.size()), slice.size());
+
+        Page<TimelineService.Item> itemsPage =
+                new PageImpl<>(content, pageRequest, timelineService.countEntries(currentUser.getId()));
+        List<PostResponse> posts = hydrate(postIds(content), currentUser);
+        recordImpressions(posts, currentUser);
+        return PageResponse.from(itemsPage, posts);
+    }
+
+    public CursorPageResponse<PostResponse> getFeed(String cursor, int size, User currentUser) {
+        PageCursor after = PageCursor.decode(cursor);
+
+        List<TimelineService.Item> items = timelineService.readSlice(currentUser.getId(), after, size + 1);
+
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            TimelineService.Item last = items.get(size - 1);
+            nextCursor = new PageCursor(last.createdAt(), last.postId()).encode();
+        }
 
-        return PageResponse.from(postsPage, posts);
+        List<PostResponse> posts = hydrate(postIds(items), currentUser);
+        recordImpressions(posts, currentUser);
+        return CursorPageResponse.of(posts, nextCursor);
     }
 
     public PostResponse getPost(String postId, User currentUser) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found"));
+        List<PostResponse> posts = hydrate(List.of(postId), currentUser);
+        if (posts.isEmpty()) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found");
+        }
+        recordImpressions(posts, currentUser);
+        return posts.get(0);
+    }
+
+    // Counted after the response is built, so it shows the views from before this one.
+    private void recordImpressions(List<PostResponse> posts, User viewer) {
+        impressionTracker.record(posts.stream().map(PostResponse::getId).toList(), viewer.getId());
+    }
 
-        long likesCount = likeRepository.countByPostId(postId);
-        long commentsCount = commentRepository.countByPostId(postId);
-        boolean isLiked = likeRepository.existsById(new LikeId(currentUser.getId(), postId));
+    // Best first, from TrendingRanker's last refresh; no ranking happens on this path.
+    public List<PostResponse> getTrending(int size, User currentUser) {
+        return hydrate(trendingRanker.top(size), currentUser);
+    }
 
-        return PostResponse.from(post, post.getAuthor(), likesCount, commentsCount, isLiked);
+    // In postIds order; posts that no longer exist are skipped.
+    public List<PostResponse> getPosts(List<String> postIds, User currentUser) {
+        return hydrate(postIds, currentUser);
+    }
+
+    // Builds responses in postIds order. Bodies and liked bits come from PostCache; on a miss a page
+    // costs one post/author query plus one liked-set query. Posts that no longer exist are skipped.
+    private List<PostResponse> hydrate(List<String> postIds, User currentUser) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+
+        String userId = currentUser.getId();
+        Map<String, PostResponse> bodies = postCache.getBodies(postIds, this::loadBodies);
+        Set<String> likedPostIds = postCache.getLikedPostIds(userId, postIds,
+                missing -> likeRepository.findLikedPostIds(userId, missing));
+
+        return postIds.stream()
+                .filter(bodies::containsKey)
+                .map(postId -> {
+                    PostResponse body = bodies.get(postId);
+                    return body.toBuilder()
+                            .likesCount(body.getLikesCount() + likeBuffer.pendingDelta(postId))
+                            .isLiked(likeBuffer.isLiked(postId, userId, likedPostIds.contains(postId)))
+                            .build();
+                })
+                .toList();
+    }
+
+    private Map<String, PostResponse> loadBodies(Set<String> postIds) {
+        return postRepository.findAllWithAuthorByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, post -> PostResponse.from(
+                        post, post.getAuthor(), post.getLikesCount(), post.getCommentsCount(), false)));
+    }
+
+    private static List<String> postIds(List<TimelineService.Item> items) {
+        return items.stream().map(TimelineService.Item::postId).toList();
     }
 
-    @Transactional
     public void deletePost(String postId, User currentUser) {
-        Post post = postRepository.findById(postId)
+        writePipeline.run(() -> removePost(postId, currentUser));
+    }
+
+    private void removePost(String postId, User currentUser) {
+        Post post = postRepository.findVisibleById(postId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found"));
 
         if (!post.getAuthor().getId().equals(currentUser.getId())) {
             throw new ApiException(HttpStatus.FORBIDDEN, "FORBIDDEN", "You can only delete your own posts");
         }
 
-        postRepository.delete(post);
+        // Hidden from every read at once; PostPurger removes the rows that reference it in the background.
+        postRepository.markDeleted(postId, Instant.now());
+        eventPublisher.publishEvent(new PostDeletedEvent(postId, currentUser.getId()));
     }
 
     public LikeResponse likePost(String postId, User currentUser) {
-        Post post = postRepository.findById(postId)
+        if (likeBuffer.isEnabled()) {
+            return bufferLike(postId, currentUser, true);
+        }
+        return writePipeline.execute(() -> insertLike(postId, currentUser));
+    }
+
+    private LikeResponse insertLike(String postId, User currentUser) {
+        Post post = postRepository.findVisibleById(postId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found"));
 
         LikeId likeId = new LikeId(currentUser.getId(), postId);
@@ -95,8 +203,10 @@ public class PostService {
                 .build();
 
         likeRepository.save(like);
+        postRepository.incrementLikesCount(postId, 1);
+        eventPublisher.publishEvent(new PostLikedEvent(postId, currentUser.getId(), true, 1));
 
-        long likesCount = likeRepository.countByPostId(postId);
+        long likesCount = postRepository.findLikesCountById(postId);
         return LikeResponse.builder()
                 .postId(postId)
                 .likesCount(likesCount)
@@ -104,7 +214,14 @@ public class PostService {
     }
 
     public LikeResponse unlikePost(String postId, User currentUser) {
-        if (!postRepository.existsById(postId)) {
+        if (likeBuffer.isEnabled()) {
+            return bufferLike(postId, currentUser, false);
+        }
+        return writePipeline.execute(() -> deleteLike(postId, currentUser));
+    }
+
+    private LikeResponse deleteLike(String postId, User currentUser) {
+        if (!postRepository.existsByIdAndDeletedAtIsNull(postId)) {
             throw new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found");
         }
 
@@ -115,11 +232,36 @@ public class PostService {
         }
 
         likeRepository.deleteById(likeId);
+        postRepository.incrementLikesCount(postId, -1);
+        eventPublisher.publishEvent(new PostLikedEvent(postId, currentUser.getId(), false, -1));
 
-        long likesCount = likeRepository.countByPostId(postId);
+        long likesCount = postRepository.findLikesCountById(postId);
         return LikeResponse.builder()
                 .postId(postId)
                 .likesCount(likesCount)
                 .build();
     }
+
+    // Buffered likes only read here; LikeBuffer writes them later in its own batches.
+    private LikeResponse bufferLike(String postId, User currentUser, boolean liked) {
+        Post post = postRepository.findVisibleById(postId)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "NOT_FOUND", "Post not found"));
+
+        boolean likedInDb = likeRepository.existsById(new LikeId(currentUser.getId(), postId));
+        if (liked) {
+            likeBuffer.like(postId, currentUser.getId(), likedInDb);
+        } else {
+            likeBuffer.unlike(postId, currentUser.getId(), likedInDb);
+        }
+
+        eventPublisher.publishEvent(new PostLikedEvent(postId, currentUser.getId(), liked, 0));
+        return buildLikeResponse(post);
+    }
+
+    private LikeResponse buildLikeResponse(Post post) {
+        return LikeResponse.builder()
+                .postId(post.getId())
+                .likesCount(post.getLikesCount() + likeBuffer.pendingDelta(post.getId()))
+                .build();
+    }
 }
@@ -0,0 +1,110 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.CommentAddedEvent;
+import com.example.instagram.event.ImpressionsFlushedEvent;
+import com.example.instagram.event.LikesFlushedEvent;
+import com.example.instagram.event.PostDeletedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.event.PostLikedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version stamps behind the ETag and Last-Modified headers of a post and its comments. A stamp changes
+// after every committed like, unlike, comment or delete of that post. Stamps live only in memory: a post
+// without one (first request, eviction, restart) gets a fresh stamp, which costs the client one full
+// response but never a stale 304. Callers read the stamp before building the response, so a change
+// racing with the read can only leave a newer body under an older tag.
+@Component
+public class PostVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, Stamp> stamps;
+
+    public PostVersions(
+            MeterRegistry meterRegistry,
+            @Value("${http.conditional.max-posts:100000}") long maxPosts
+    ) {
+        this.stamps = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, stamps, "postVersions");
+    }
+
+    public Stamp current(String postId) {
+        return stamps.get(postId, id -> next(null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        bump(event.postId());
+    }
+
+    // Counts move from the buffer to the posts table; the total clients see should not change, but the
+    // cached body is patched separately, so the tag follows it.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLikesFlushed(LikesFlushedEvent event) {
+        event.likesCountDeltas().keySet().forEach(this::bump);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        bump(event.postId());
+    }
+
+    // View counts are only shown as of the last flush, so this is the only point at which they change.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImpressionsFlushed(ImpressionsFlushedEvent event) {
+        event.viewsCountDeltas().keySet().forEach(this::bump);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        bump(event.postId());
+    }
+
+    // The post is reached under its new id from now on, which gets a fresh stamp on first request.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        stamps.invalidate(event.oldPostId());
+    }
+
+    // Posts nobody has asked for yet have no stamp to invalidate.
+    private void bump(String postId) {
+        stamps.asMap().computeIfPresent(postId, (id, previous) -> next(previous));
+    }
+
+    // Last-Modified has one-second resolution, so a post changing twice within a second moves it forward
+    // by a second; otherwise an If-Modified-Since check could miss the second change.
+    private Stamp next(Stamp previous) {
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        if (previous != null && !lastModified.isAfter(previous.lastModified())) {
+            lastModified = previous.lastModified().plusSeconds(1);
+        }
+        return new Stamp(epoch + "-" + Long.toString(sequence.incrementAndGet(), 36), lastModified);
+    }
+
+    public record Stamp(String version, Instant lastModified) {
+
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+
+        // For responses that depend on the viewer (the liked flag). HTTP caches on shared devices are
+        // often keyed by URL only, so a tag issued to one user must not validate another user's copy.
+        public String etag(String viewerId) {
+            return "\"" + version + "-" + Integer.toHexString(viewerId.hashCode()) + "\"";
+        }
+    }
+}
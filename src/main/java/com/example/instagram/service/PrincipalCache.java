@@ -0,0 +1,103 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.UserChangedEvent;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Verified bearer token -> User. A token is parsed and the user loaded once; later requests with the
+// same token skip both. Entries never outlive the token and are dropped when the user changes.
+@Component
+public class PrincipalCache {
+
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final Cache<String, VerifiedPrincipal> principals;
+
+    public PrincipalCache(
+            JwtService jwtService,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.principal-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.principal-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(Duration.ofSeconds(ttlSeconds)))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    // Throws JwtException for an invalid or expired token and UsernameNotFoundException for an unknown subject.
+    public User resolve(String token) {
+        // Not principals.get(token, loader): Caffeine runs that loader inside a map-bin lock, and holding a
+        // monitor across the JDBC lookup would pin the carrier when requests run on virtual threads.
+        // Two concurrent misses for one token both verify, which is harmless.
+        VerifiedPrincipal principal = principals.getIfPresent(token);
+        if (principal == null) {
+            principal = verify(token);
+            principals.put(token, principal);
+        }
+        if (!principal.expiresAt().isAfter(Instant.now())) {
+            principals.invalidate(token);
+            return null;
+        }
+        return principal.user();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        principals.asMap().values().removeIf(principal -> principal.user().getId().equals(event.userId()));
+    }
+
+    private VerifiedPrincipal verify(String token) {
+        Claims claims = jwtService.parseClaims(token);
+        // JwtService.generateToken puts the username in the subject.
+        User user = userRepository.findByUsername(claims.getSubject())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return new VerifiedPrincipal(user, claims.getExpiration().toInstant());
+    }
+
+    private record VerifiedPrincipal(User user, Instant expiresAt) {
+    }
+
+    // An entry lives for the TTL or until its token expires, whichever comes first; reads and
+    // replacements keep the time already left.
+    private record TokenExpiry(Duration ttl) implements Expiry<String, VerifiedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedPrincipal principal, long currentTime) {
+            Duration untilTokenExpiry = Duration.between(Instant.now(), principal.expiresAt());
+            return Math.max(0, (untilTokenExpiry.compareTo(ttl) < 0 ? untilTokenExpiry : ttl).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedPrincipal principal, long currentTime,
+                                      long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedPrincipal principal, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
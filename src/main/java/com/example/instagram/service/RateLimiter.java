@@ -0,0 +1,97 @@
+package com.example.instagram.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-client token buckets, one budget each for reads, writes and sign-in/registration.
+//
+// A bucket is a single AtomicLong holding the time at which it would be full again (the GCRA form of a
+// token bucket). Taking a token moves that time forward by one refill interval, with one CAS and no lock.
+// The request is refused instead if that would put it more than `burst` intervals ahead of now.
+//
+// Buckets not touched for idle-seconds are evicted. By then they have refilled, so eviction forgets
+// nothing. If more than max-clients are active at once, the least recently used get a fresh bucket.
+@Component
+public class RateLimiter {
+
+    public enum Budget { READ, WRITE, AUTH }
+
+    private final Map<Budget, Limit> limits = new EnumMap<>(Budget.class);
+
+    public RateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.read.permits-per-second:20}") double readPerSecond,
+            @Value("${rate-limit.read.burst:50}") int readBurst,
+            @Value("${rate-limit.write.permits-per-second:5}") double writePerSecond,
+            @Value("${rate-limit.write.burst:20}") int writeBurst,
+            @Value("${rate-limit.auth.permits-per-second:0.2}") double authPerSecond,
+            @Value("${rate-limit.auth.burst:10}") int authBurst,
+            @Value("${rate-limit.idle-seconds:600}") long idleSeconds,
+            @Value("${rate-limit.max-clients:100000}") long maxClients
+    ) {
+        limits.put(Budget.READ, new Limit(Budget.READ, readPerSecond, readBurst, idleSeconds, maxClients, meterRegistry));
+        limits.put(Budget.WRITE, new Limit(Budget.WRITE, writePerSecond, writeBurst, idleSeconds, maxClients, meterRegistry));
+        limits.put(Budget.AUTH, new Limit(Budget.AUTH, authPerSecond, authBurst, idleSeconds, maxClients, meterRegistry));
+    }
+
+    // Takes a token from the client's bucket. Returns 0 if one was available, otherwise how many
+    // nanoseconds until one will be.
+    public long tryAcquire(Budget budget, String clientKey) {
+        return limits.get(budget).tryAcquire(clientKey);
+    }
+
+    private static final class Limit {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejected;
+
+        private Limit(Budget budget, double permitsPerSecond, int burst, long idleSeconds, long maxClients,
+                      MeterRegistry meterRegistry) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            this.toleranceNanos = intervalNanos * burst;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                    .recordStats()
+                    .build();
+            this.rejected = Counter.builder("http.server.requests.throttled")
+                    .description("Requests refused with 429 because the client's bucket was empty")
+                    .tag("budget", budget.name())
+                    .register(meterRegistry);
+
+            String name = budget.name().charAt(0) + budget.name().substring(1).toLowerCase();
+            CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimit" + name);
+        }
+
+        private long tryAcquire(String clientKey) {
+            // A new bucket starts full: its refill time is already in the past by the time it is used.
+            AtomicLong fullAt = buckets.get(clientKey, key -> new AtomicLong(System.nanoTime()));
+            long now = System.nanoTime();
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - toleranceNanos;
+                if (wait > 0) {
+                    rejected.increment();
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
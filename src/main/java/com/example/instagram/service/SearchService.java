@@ -0,0 +1,87 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.request.SearchCursor;
+import com.example.instagram.dto.response.CommentResponse;
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.exception.ApiException;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.CommentRepository;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.SearchHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Ranked full-text search over the FTS5 indexes. A page is one index query plus one bulk hydration; rows
+// deleted since they were indexed are skipped, so a page can come back short of size.
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int MAX_TERMS = 8;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostService postService;
+    private final CommentService commentService;
+
+    public CursorPageResponse<PostResponse> searchPosts(String query, String cursor, int size, User currentUser) {
+        String match = toMatchQuery(query);
+        SearchCursor after = SearchCursor.decode(cursor);
+
+        List<SearchHit> hits = after == null
+                ? postRepository.searchCaptions(match, size + 1)
+                : postRepository.searchCaptionsAfter(match, after.getRank(), after.getDocid(), size + 1);
+
+        String nextCursor = nextCursor(hits, size);
+        return CursorPageResponse.of(postService.getPosts(ids(hits, size), currentUser), nextCursor);
+    }
+
+    public CursorPageResponse<CommentResponse> searchComments(String query, String cursor, int size) {
+        String match = toMatchQuery(query);
+        SearchCursor after = SearchCursor.decode(cursor);
+
+        List<SearchHit> hits = after == null
+                ? commentRepository.searchText(match, size + 1)
+                : commentRepository.searchTextAfter(match, after.getRank(), after.getDocid(), size + 1);
+
+        String nextCursor = nextCursor(hits, size);
+        return CursorPageResponse.of(commentService.getCommentsByIds(ids(hits, size)), nextCursor);
+    }
+
+    // User input is reduced to words, each quoted, so FTS5 operators and syntax never reach MATCH. Every
+    // word must appear; the last one also matches as a prefix, for search-as-you-type.
+    static String toMatchQuery(String query) {
+        List<String> terms = Arrays.stream(query == null ? new String[0] : query.split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .limit(MAX_TERMS)
+                .toList();
+
+        if (terms.isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "BAD_REQUEST", "Search query must contain a word");
+        }
+
+        return terms.stream()
+                .map(term -> "\"" + term + "\"")
+                .collect(Collectors.joining(" ")) + "*";
+    }
+
+    private static String nextCursor(List<SearchHit> hits, int size) {
+        if (hits.size() <= size) {
+            return null;
+        }
+        SearchHit last = hits.get(size - 1);
+        return new SearchCursor(last.getRank(), last.getDocid()).encode();
+    }
+
+    private static List<String> ids(List<SearchHit> hits, int size) {
+        return hits.stream().limit(size).map(SearchHit::getId).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.instagram.service;
+
+// Finds #hashtags and @mentions in a single pass over the text. Nothing is allocated: each match is
+// reported to the sink as a range of the input, and the sink decides what to keep.
+//
+// A marker counts only at the start of the text or after a character that cannot be part of a word,
+// so "mail@example.com" and "x#1" contain no matches. A tag is letters, digits, marks and underscores,
+// and must contain a letter. A mention may also contain dots, but not end with one. Longer runs than
+// the limits are skipped, not truncated.
+public final class TagExtractor {
+
+    public static final int MAX_TAG_LENGTH = 100;
+    public static final int MAX_MENTION_LENGTH = 50;
+
+    public interface Sink {
+
+        // text[start, end) without the '#'.
+        void tag(CharSequence text, int start, int end);
+
+        // text[start, end) without the '@'.
+        void mention(CharSequence text, int start, int end);
+    }
+
+    private TagExtractor() {
+    }
+
+    public static void extract(CharSequence text, Sink sink) {
+        if (text == null) {
+            return;
+        }
+
+        int length = text.length();
+        boolean boundary = true;
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+            if (boundary && (c == '#' || c == '@')) {
+                int end = c == '#' ? scanTag(text, i + 1, sink) : scanMention(text, i + 1, sink);
+                if (end > i + 1) {
+                    i = end;
+                    boundary = false;
+                    continue;
+                }
+            }
+
+            int codePoint = Character.codePointAt(text, i);
+            boundary = !isWordPart(codePoint);
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    // Returns the end of the word after the marker, reporting it if it is a valid tag.
+    private static int scanTag(CharSequence text, int start, Sink sink) {
+        int i = start;
+        boolean hasLetter = false;
+
+        while (i < text.length()) {
+            int codePoint = Character.codePointAt(text, i);
+            if (!isWordPart(codePoint)) {
+                break;
+            }
+            hasLetter |= Character.isLetter(codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        if (hasLetter && i - start <= MAX_TAG_LENGTH) {
+            sink.tag(text, start, i);
+        }
+        return i;
+    }
+
+    private static int scanMention(CharSequence text, int start, Sink sink) {
+        int i = start;
+        int end = start;
+
+        while (i < text.length()) {
+            int codePoint = Character.codePointAt(text, i);
+            if (codePoint != '.' && !isWordPart(codePoint)) {
+                break;
+            }
+            i += Character.charCount(codePoint);
+            if (codePoint != '.') {
+                end = i;
+            }
+        }
+
+        if (end > start && end - start <= MAX_MENTION_LENGTH) {
+            sink.mention(text, start, end);
+        }
+        return end;
+    }
+
+    private static boolean isWordPart(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint) || codePoint == '_') {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.instagram.service;
+
+import com.example.instagram.repository.MentionRepository;
+import com.example.instagram.repository.PostTagRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Write-time stage that extracts tags and mentions from a caption or comment and adds them to the
+// inverted indexes, inside the caller's transaction. At most two statements per text, and none when
+// the text has neither. Tags are matched case-insensitively, mentions by exact username.
+@Component
+@RequiredArgsConstructor
+public class TagIndexer {
+
+    private static final int MAX_TAGS = 30;
+    private static final int MAX_MENTIONS = 20;
+
+    private final PostTagRepository postTagRepository;
+    private final MentionRepository mentionRepository;
+    private final ObjectMapper objectMapper;
+
+    public void indexPost(String postId, String caption) {
+        Entities entities = Entities.of(caption);
+        if (!entities.tags.isEmpty()) {
+            postTagRepository.insertForPost(postId, toJson(entities.tags));
+        }
+        if (!entities.mentions.isEmpty()) {
+            mentionRepository.insertForPost(postId, entities.mentions);
+        }
+    }
+
+    public void indexComment(String commentId, String text) {
+        Entities entities = Entities.of(text);
+        if (!entities.tags.isEmpty()) {
+            postTagRepository.insertForComment(commentId, toJson(entities.tags));
+        }
+        if (!entities.mentions.isEmpty()) {
+            mentionRepository.insertForComment(commentId, entities.mentions);
+        }
+    }
+
+    // The form tags are stored and looked up in.
+    public static String normalizeTag(String tag) {
+        return tag.toLowerCase(Locale.ROOT);
+    }
+
+    private String toJson(Set<String> tags) {
+        try {
+            return objectMapper.writeValueAsString(tags);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entities implements TagExtractor.Sink {
+
+        private final Set<String> tags = new LinkedHashSet<>();
+        private final Set<String> mentions = new LinkedHashSet<>();
+
+        private static Entities of(String text) {
+            Entities entities = new Entities();
+            TagExtractor.extract(text, entities);
+            return entities;
+        }
+
+        @Override
+        public void tag(CharSequence text, int start, int end) {
+            if (tags.size() < MAX_TAGS) {
+                tags.add(normalizeTag(text.subSequence(start, end).toString()));
+            }
+        }
+
+        @Override
+        public void mention(CharSequence text, int start, int end) {
+            if (mentions.size() < MAX_MENTIONS) {
+                mentions.add(text.subSequence(start, end).toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.instagram.service;
+
+import com.example.instagram.repository.CommentRepository;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.TextRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+// Rebuilds the tag and mention indexes from existing captions and comments, for rows written before
+// TagIndexer existed. Rows are read in id order, one batch per transaction with a pause in between,
+// so request writers keep getting the SQLite write lock. Inserts are idempotent; a run can be repeated.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagReindexer {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TagIndexer tagIndexer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${tags.reindex.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tags.reindex.pause-ms:50}")
+    private long pauseMs;
+
+    // Starts a reindex in the background; returns false if one is already running.
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(this::reindex, "tag-reindexer");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void reindex() {
+        try {
+            long posts = reindex(postRepository::findCaptionsAfter, tagIndexer::indexPost);
+            if (posts < 0) {
+                return;
+            }
+            long comments = reindex(commentRepository::findTextAfter, tagIndexer::indexComment);
+            if (comments < 0) {
+                return;
+            }
+            log.info("Reindexed tags and mentions of {} posts and {} comments", posts, comments);
+        } catch (RuntimeException e) {
+            log.error("Tag reindex failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Returns the number of rows read, or -1 if interrupted.
+    private long reindex(BiFunction<String, PageRequest, List<TextRow>> readBatch,
+                         BiConsumer<String, String> index) {
+        String after = "";
+        long read = 0;
+
+        while (true) {
+            List<TextRow> rows = readBatch.apply(after, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                return read;
+            }
+
+            transactionTemplate.executeWithoutResult(status ->
+                    rows.forEach(row -> index.accept(row.getId(), row.getText())));
+
+            read += rows.size();
+            after = rows.get(rows.size() - 1).getId();
+
+            if (!BackgroundJobs.pause(pauseMs)) {
+                return -1;
+            }
+        }
+    }
+}
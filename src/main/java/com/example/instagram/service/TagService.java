@@ -0,0 +1,66 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.request.PageCursor;
+import com.example.instagram.dto.response.CursorPageResponse;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.Mention;
+import com.example.instagram.model.PostTag;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.MentionRepository;
+import com.example.instagram.repository.PostTagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Hashtag and mention pages, newest first. Index rows of deleted posts stay until PostPurger removes
+// them; hydration skips those posts, so a page can come back short of size.
+@Service
+@RequiredArgsConstructor
+public class TagService {
+
+    private final PostTagRepository postTagRepository;
+    private final MentionRepository mentionRepository;
+    private final PostService postService;
+
+    public CursorPageResponse<PostResponse> getTaggedPosts(String tag, String cursor, int size, User currentUser) {
+        String normalized = TagIndexer.normalizeTag(tag.startsWith("#") ? tag.substring(1) : tag);
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+
+        List<PostTag> entries = after == null
+                ? postTagRepository.findLatest(normalized, limit)
+                : postTagRepository.findBefore(normalized, after.getId(), limit);
+
+        String nextCursor = null;
+        if (entries.size() > size) {
+            entries = entries.subList(0, size);
+            PostTag last = entries.get(size - 1);
+            nextCursor = new PageCursor(last.getPostCreatedAt(), last.getId().getPostId()).encode();
+        }
+
+        List<String> postIds = entries.stream().map(entry -> entry.getId().getPostId()).toList();
+        return CursorPageResponse.of(postService.getPosts(postIds, currentUser), nextCursor);
+    }
+
+    // Posts whose caption or comments mention the user, once per page even if mentioned repeatedly.
+    public CursorPageResponse<PostResponse> getMentions(String userId, String cursor, int size, User currentUser) {
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+
+        List<Mention> mentions = after == null
+                ? mentionRepository.findLatest(userId, limit)
+                : mentionRepository.findBefore(userId, after.getId(), limit);
+
+        String nextCursor = null;
+        if (mentions.size() > size) {
+            mentions = mentions.subList(0, size);
+            Mention last = mentions.get(size - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId().getSourceId()).encode();
+        }
+
+        List<String> postIds = mentions.stream().map(Mention::getPostId).distinct().toList();
+        return CursorPageResponse.of(postService.getPosts(postIds, currentUser), nextCursor);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.event.UserChangedEvent;
+import com.example.instagram.model.TimeOrderedIdGenerator;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Rewrites random UUID primary keys left from before time-ordered ids into TimeOrderedIdGenerator ids
+// derived from each row's created_at, while the application keeps serving. Every chunk renames a set
+// of rows together with every column that references them in one short transaction, so readers never
+// see a dangling reference and writers get the lock between chunks. Every referencing column is
+// indexed (V2, V5, V6 and V9), so a chunk never scans a whole table.
+//
+// Until a database has been fully migrated, legacy rows do not sort by time against new ones.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimeOrderedIdMigration {
+
+    private static final int LEGACY_ID_LENGTH = 36;
+
+    // Table -> columns elsewhere that hold its ids.
+    private static final Map<String, List<String>> REFERENCES = Map.of(
+            "posts", List.of("comments.post_id", "likes.post_id", "timelines.post_id",
+                    "post_tags.post_id", "mentions.post_id", "mentions.source_id", "post_impressions.post_id"),
+            "comments", List.of("mentions.source_id"),
+            "users", List.of("posts.author_id", "comments.author_id", "likes.user_id",
+                    "follows.follower_id", "follows.followee_id", "timelines.user_id", "mentions.user_id")
+    );
+
+    private static final Map<String, String> ENTITIES = Map.of(
+            "posts", "Post",
+            "comments", "Comment",
+            "users", "User"
+    );
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${ids.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ids.migration.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ids.migration.pause-ms:50}")
+    private long pauseMs;
+
+    private volatile boolean completed;
+
+    @Scheduled(
+            initialDelayString = "${ids.migration.initial-delay-ms:10000}",
+            fixedDelayString = "${ids.migration.interval-ms:600000}"
+    )
+    public void migrate() {
+        if (!enabled || completed) {
+            return;
+        }
+
+        for (String table : List.of("posts", "comments", "users")) {
+            int migrated = migrateTable(table);
+            if (migrated < 0) {
+                return;
+            }
+            if (migrated > 0) {
+                log.info("Migrated {} {} to time-ordered ids", migrated, table);
+            }
+        }
+        completed = true;
+    }
+
+    // Returns the number of rows renamed, or -1 if interrupted.
+    private int migrateTable(String table) {
+        String after = "";
+        int migrated = 0;
+
+        while (true) {
+            String from = after;
+            List<Object[]> chunk = transactionTemplate.execute(status -> migrateChunk(table, from));
+            if (chunk.isEmpty()) {
+                return migrated;
+            }
+
+            migrated += chunk.size();
+            after = (String) chunk.get(chunk.size() - 1)[0];
+
+            if (!BackgroundJobs.pause(pauseMs)) {
+                return -1;
+            }
+        }
+    }
+
+    private List<Object[]> migrateChunk(String table, String after) {
+        List<Object[]> chunk = entityManager.createQuery(
+                        "SELECT e.id, e.createdAt FROM " + ENTITIES.get(table) + " e " +
+                                "WHERE e.id > :after AND length(e.id) = :length ORDER BY e.id", Object[].class)
+                .setParameter("after", after)
+                .setParameter("length", LEGACY_ID_LENGTH)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+
+        jdbcTemplate.execute("CREATE TEMP TABLE IF NOT EXISTS id_remap (old_id TEXT PRIMARY KEY, new_id TEXT NOT NULL)");
+        jdbcTemplate.batchUpdate("INSERT INTO id_remap (old_id, new_id) VALUES (?, ?)", chunk.stream()
+                .map(row -> new Object[]{row[0], TimeOrderedIdGenerator.at((Instant) row[1])})
+                .toList());
+
+        for (String reference : REFERENCES.get(table)) {
+            String[] parts = reference.split("\\.");
+            rename(parts[0], parts[1]);
+        }
+        rename(table, "id");
+        List<Object[]> remapped = jdbcTemplate.query("SELECT old_id, new_id FROM id_remap",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2)});
+        jdbcTemplate.update("DELETE FROM id_remap");
+
+        // Caches and in-memory counters are keyed by id; the events are delivered after the chunk commits.
+        if (table.equals("posts")) {
+            remapped.forEach(ids -> eventPublisher.publishEvent(new PostIdChangedEvent((String) ids[0], (String) ids[1])));
+        } else if (table.equals("users")) {
+            // Cached principals still carry the old id.
+            chunk.forEach(row -> eventPublisher.publishEvent(new UserChangedEvent((String) row[0])));
+        }
+        return chunk;
+    }
+
+    private void rename(String table, String column) {
+        jdbcTemplate.update("UPDATE " + table + " SET " + column + " = " +
+                "(SELECT new_id FROM id_remap WHERE old_id = " + table + "." + column + ") " +
+                "WHERE " + column + " IN (SELECT old_id FROM id_remap)");
+    }
+}
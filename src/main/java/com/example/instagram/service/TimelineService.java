@@ -0,0 +1,103 @@
+package com.example.instagram.service;
+
+import com.example.instagram.dto.request.PageCursor;
+import com.example.instagram.event.PostCreatedEvent;
+import com.example.instagram.model.Post;
+import com.example.instagram.model.TimelineEntry;
+import com.example.instagram.repository.FollowRepository;
+import com.example.instagram.repository.PostRepository;
+import com.example.instagram.repository.TimelineRepository;
+import com.example.instagram.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Home timelines are materialized per reader by fan-out on write. Authors at or above the
+// celebrity threshold are not fanned out; their posts are merged in when a timeline is read.
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final Comparator<Item> NEWEST_FIRST = Comparator.comparing(Item::postId).reversed();
+
+    private final TimelineRepository timelineRepository;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+
+    @Value("${timeline.fanout.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${timeline.fanout.celebrity-threshold:10000}")
+    private long celebrityThreshold;
+
+    @Async("fanoutExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        timelineRepository.fanOut(event.postId(), List.of(event.authorId()));
+
+        if (userRepository.findFollowersCountById(event.authorId()).orElse(0L) >= celebrityThreshold) {
+            return;
+        }
+
+        String after = "";
+        while (true) {
+            List<String> followerIds = followRepository.findFollowerIdsAfter(
+                    event.authorId(), after, PageRequest.of(0, chunkSize));
+            if (followerIds.isEmpty()) {
+                break;
+            }
+
+            timelineRepository.fanOut(event.postId(), followerIds);
+            after = followerIds.get(followerIds.size() - 1);
+        }
+    }
+
+    // Returns up to limit timeline items older than the cursor, newest first.
+    public List<Item> readSlice(String userId, PageCursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+
+        List<TimelineEntry> entries = after == null
+                ? timelineRepository.findLatest(userId, page)
+                : timelineRepository.findBefore(userId, after.getId(), page);
+
+        List<Item> items = new ArrayList<>();
+        entries.forEach(entry -> items.add(new Item(entry.getId().getPostId(), entry.getPostCreatedAt())));
+
+        List<String> celebrityIds = followRepository.findFolloweeIdsWithFollowersAtLeast(userId, celebrityThreshold);
+        if (!celebrityIds.isEmpty()) {
+            List<Post> pulled = after == null
+                    ? postRepository.findLatestByAuthorIds(celebrityIds, page)
+                    : postRepository.findBeforeByAuthorIds(celebrityIds, after.getId(), page);
+            pulled.forEach(post -> items.add(new Item(post.getId(), post.getCreatedAt())));
+        }
+
+        // Posts fanned out before their author crossed the threshold can come back from both sources.
+        return items.stream()
+                .sorted(NEWEST_FIRST)
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    public long countEntries(String userId) {
+        long total = timelineRepository.countByIdUserId(userId);
+
+        List<String> celebrityIds = followRepository.findFolloweeIdsWithFollowersAtLeast(userId, celebrityThreshold);
+        if (!celebrityIds.isEmpty()) {
+            total += postRepository.countByAuthorIdInAndDeletedAtIsNull(celebrityIds);
+        }
+        return total;
+    }
+
+    public record Item(String postId, Instant createdAt) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.instagram.service;
+
+import com.example.instagram.event.CommentAddedEvent;
+import com.example.instagram.event.PostDeletedEvent;
+import com.example.instagram.event.PostIdChangedEvent;
+import com.example.instagram.event.PostLikedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Explore ranking by recent engagement, kept in memory from like, unlike and comment events.
+//
+// Each post's score is the sum of its engagement weights, each decayed exponentially with the
+// configured half-life. Weights are stored pre-scaled by e^(lambda * (t - base)), so decay never has
+// to touch stored scores: ordering is the same at any instant, and a score's current value is the
+// stored one times e^(-lambda * (now - base)). The base is moved forward, rescaling every score, before
+// the factor gets large.
+//
+// Reads never rank: refresh() rebuilds the top-K list once per interval and publishes it through a
+// volatile field. Posts whose score decays below min-score are dropped then, as are the weakest
+// posts beyond max-posts. Scores are checkpointed to a file so a restart resumes where it left off,
+// losing at most one checkpoint interval of engagement.
+@Slf4j
+@Component
+public class TrendingRanker {
+
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 3.0;
+    private static final double MAX_SCALE_EXPONENT = 40;
+    private static final int CHECKPOINT_FORMAT = 1;
+
+    private final Map<String, Double> scores = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebaseLock = new ReentrantReadWriteLock();
+    private final double lambdaPerMs;
+    private final int topK;
+    private final int maxPosts;
+    private final double minScore;
+    private final Path checkpointFile;
+
+    private volatile long baseMillis = System.currentTimeMillis();
+    private volatile List<String> top = List.of();
+
+    public TrendingRanker(
+            MeterRegistry meterRegistry,
+            @Value("${trending.half-life-minutes:360}") long halfLifeMinutes,
+            @Value("${trending.top-k:100}") int topK,
+            @Value("${trending.max-posts:100000}") int maxPosts,
+            @Value("${trending.min-score:0.05}") double minScore,
+            @Value("${trending.checkpoint-file:trending.checkpoint}") String checkpointFile
+    ) {
+        this.lambdaPerMs = Math.log(2) / TimeUnit.MINUTES.toMillis(halfLifeMinutes);
+        this.topK = topK;
+        this.maxPosts = maxPosts;
+        this.minScore = minScore;
+        this.checkpointFile = Path.of(checkpointFile).toAbsolutePath();
+
+        Gauge.builder("trending.posts.tracked", scores, Map::size)
+                .description("Posts with a trending score")
+                .register(meterRegistry);
+    }
+
+    // Up to limit post ids, best first, as of the last refresh.
+    public List<String> top(int limit) {
+        List<String> current = top;
+        return current.subList(0, Math.min(Math.max(limit, 0), current.size()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        if (event.liked()) {
+            add(event.postId(), LIKE_WEIGHT);
+        } else {
+            subtract(event.postId(), LIKE_WEIGHT);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        add(event.postId(), COMMENT_WEIGHT);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        scores.remove(event.postId());
+    }
+
+    // Stored scores share one scale, so a score keeps its value under the new id.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostIdChanged(PostIdChangedEvent event) {
+        rebaseLock.readLock().lock();
+        try {
+            Double score = scores.remove(event.oldPostId());
+            if (score != null) {
+                scores.merge(event.newPostId(), score, Double::sum);
+            }
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    private void add(String postId, double weight) {
+        rebaseLock.readLock().lock();
+        try {
+            scores.merge(postId, weight * scaleAt(System.currentTimeMillis()), Double::sum);
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    // An unlike takes back a like's weight at today's scale, which is at least what that like still adds.
+    private void subtract(String postId, double weight) {
+        rebaseLock.readLock().lock();
+        try {
+            double scaled = weight * scaleAt(System.currentTimeMillis());
+            scores.computeIfPresent(postId, (id, score) -> score > scaled ? score - scaled : null);
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    private double scaleAt(long millis) {
+        return Math.exp(lambdaPerMs * (millis - baseMillis));
+    }
+
+    @Scheduled(fixedDelayString = "${trending.refresh-ms:1000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        if (lambdaPerMs * (now - baseMillis) > MAX_SCALE_EXPONENT) {
+            rebase(now);
+        }
+
+        double scale = scaleAt(now);
+        scores.values().removeIf(score -> score / scale < minScore);
+        if (scores.size() > maxPosts) {
+            evictWeakest(scores.size() - maxPosts);
+        }
+
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            if (best.size() < topK) {
+                best.add(Map.entry(entry.getKey(), entry.getValue()));
+            } else if (entry.getValue() > best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        top = ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    private void rebase(long now) {
+        rebaseLock.writeLock().lock();
+        try {
+            double factor = 1 / scaleAt(now);
+            scores.replaceAll((id, score) -> score * factor);
+            baseMillis = now;
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+    }
+
+    private void evictWeakest(int count) {
+        double[] values = scores.values().stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(values);
+        double cutoff = values[Math.min(count, values.length) - 1];
+        scores.values().removeIf(score -> score <= cutoff);
+    }
+
+    // Written to a temporary file and moved over the previous checkpoint, so a crash mid-write leaves
+    // the previous one intact. Scores are stored as their current values with the time they were taken.
+    @Scheduled(
+            initialDelayString = "${trending.checkpoint-interval-ms:60000}",
+            fixedDelayString = "${trending.checkpoint-interval-ms:60000}"
+    )
+    public void checkpoint() {
+        try {
+            Files.createDirectories(checkpointFile.getParent());
+            Path temp = Files.createTempFile(checkpointFile.getParent(), "trending-", ".tmp");
+            try {
+                int written = writeCheckpoint(temp);
+                Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Checkpointed {} trending scores", written);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not checkpoint trending scores to {}", checkpointFile, e);
+        }
+    }
+
+    private int writeCheckpoint(Path file) throws IOException {
+        rebaseLock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            long now = System.currentTimeMillis();
+            double scale = scaleAt(now);
+            List<Map.Entry<String, Double>> entries = List.copyOf(scores.entrySet());
+
+            out.writeInt(CHECKPOINT_FORMAT);
+            out.writeLong(now);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Double> entry : entries) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue() / scale);
+            }
+            return entries.size();
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    void restore() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+            if (in.readInt() != CHECKPOINT_FORMAT) {
+                log.warn("Ignoring trending checkpoint {} in an unknown format", checkpointFile);
+                return;
+            }
+
+            long takenAt = in.readLong();
+            int count = in.readInt();
+            baseMillis = System.currentTimeMillis();
+            double decay = Math.exp(-lambdaPerMs * Math.max(0, baseMillis - takenAt));
+
+            for (int i = 0; i < count; i++) {
+                String postId = in.readUTF();
+                double score = in.readDouble() * decay;
+                if (score >= minScore) {
+                    scores.put(postId, score);
+                }
+            }
+            refresh();
+            log.info("Restored {} trending scores from {}", scores.size(), checkpointFile);
+        } catch (NoSuchFileException e) {
+            log.info("No trending checkpoint at {}; starting empty", checkpointFile);
+        } catch (IOException e) {
+            scores.clear();
+            log.warn("Could not read trending checkpoint {}; starting empty", checkpointFile, e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        checkpoint();
+    }
+}
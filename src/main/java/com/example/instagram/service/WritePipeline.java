@@ -0,0 +1,213 @@
+package com.example.instagram.service;
+
+import com.example.instagram.exception.ApiException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Transaction boundary for request-path writes. In DIRECT mode each write is its own transaction on the
+// caller's thread. In GROUP_COMMIT mode writes are queued to a single writer thread that runs up to
+// max-batch-size of them in one transaction, so they share one commit (and one fsync), and completes
+// each caller after the commit.
+//
+// Work must do its validation before writing: an ApiException thrown by one write is reported to its
+// caller without rolling back the rest of the batch.
+@Slf4j
+@Component
+public class WritePipeline {
+
+    public enum Mode { DIRECT, GROUP_COMMIT }
+
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<WriteTask<?>> queue;
+    private final Timer latency;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public WritePipeline(
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${sqlite.write-pipeline.mode:direct}") String mode,
+            @Value("${sqlite.write-pipeline.max-batch-size:64}") int maxBatchSize,
+            @Value("${sqlite.write-pipeline.max-delay-ms:2}") long maxDelayMs,
+            @Value("${sqlite.write-pipeline.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.transactionTemplate = transactionTemplate;
+        this.mode = Mode.valueOf(mode.toUpperCase().replace('-', '_'));
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.latency = Timer.builder("sqlite.write.latency")
+                .description("Time from submitting a write until its transaction committed")
+                .tag("mode", this.mode.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("sqlite.write.batch.size")
+                .description("Writes committed per transaction")
+                .tag("mode", this.mode.name())
+                .register(meterRegistry);
+        Gauge.builder("sqlite.write.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (mode == Mode.GROUP_COMMIT) {
+            writer = new Thread(this::runWriter, "sqlite-writer");
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        try {
+            if (mode == Mode.DIRECT) {
+                batchSizes.record(1);
+                return transactionTemplate.execute(status -> work.get());
+            }
+            return submit(work).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        WriteTask<T> task = new WriteTask<>(work);
+        if (!running || !queue.offer(task)) {
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE",
+                    "Too many pending writes, please retry shortly");
+        }
+        return task.result;
+    }
+
+    private void runWriter() {
+        List<WriteTask<?>> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                WriteTask<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write pipeline failed to complete a batch", e);
+                batch.forEach(task -> task.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<WriteTask<?>> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            WriteTask<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void commit(List<WriteTask<?>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(WriteTask::run));
+            batchSizes.record(batch.size());
+            batch.forEach(WriteTask::complete);
+        } catch (RuntimeException e) {
+            // A database error in one write rolled the whole batch back. Replay each write in its own
+            // transaction so only the failing one reports an error.
+            for (WriteTask<?> task : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> task.run());
+                    batchSizes.record(1);
+                    task.complete();
+                } catch (RuntimeException taskError) {
+                    task.result.completeExceptionally(taskError);
+                }
+            }
+        }
+    }
+
+    private static final class WriteTask<T> {
+
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private ApiException rejection;
+
+        private WriteTask(Supplier<T> work) {
+            this.work = work;
+        }
+
+        private void run() {
+            rejection = null;
+            try {
+                value = work.get();
+            } catch (ApiException e) {
+                rejection = e;
+            }
+        }
+
+        private void complete() {
+            if (rejection != null) {
+                result.completeExceptionally(rejection);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Adds the denormalized counters to databases created before them, which Hibernate's schema update
+// used to add. SQLite has no ADD COLUMN IF NOT EXISTS, so this checks each table first. A counter
+// added here is filled from the rows it counts; databases that already had it are left alone.
+public class V8__counter_columns extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            if (addCounter(connection, statement, "posts", "likes_count")) {
+                statement.execute("UPDATE posts SET likes_count = " +
+                        "(SELECT COUNT(*) FROM likes l WHERE l.post_id = posts.id)");
+            }
+            if (addCounter(connection, statement, "posts", "comments_count")) {
+                statement.execute("UPDATE posts SET comments_count = " +
+                        "(SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id)");
+            }
+            if (addCounter(connection, statement, "users", "followers_count")) {
+                statement.execute("UPDATE users SET followers_count = " +
+                        "(SELECT COUNT(*) FROM follows f WHERE f.followee_id = users.id)");
+            }
+        }
+    }
+
+    private static boolean addCounter(Connection connection, Statement statement, String table, String column)
+            throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(null, null, table, column)) {
+            if (columns.next()) {
+                return false;
+            }
+        }
+        statement.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " INTEGER DEFAULT 0 NOT NULL");
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+-- V4 keyed the full-text documents on the implicit rowid of posts and comments, which VACUUM may
+-- renumber: the triggers would then update or remove the wrong document, and a new row could collide
+-- with an existing one. Documents now get their own rowid, recorded against the source id in the
+-- tables below, and the triggers look it up by id. Existing documents keep their rowid.
+CREATE TABLE IF NOT EXISTS post_search_docs (
+    doc     INTEGER      PRIMARY KEY,
+    post_id VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS comment_search_docs (
+    doc        INTEGER      PRIMARY KEY,
+    comment_id VARCHAR(255) NOT NULL UNIQUE
+);
+
+INSERT INTO post_search_docs (doc, post_id) SELECT rowid, post_id FROM post_search;
+INSERT INTO comment_search_docs (doc, comment_id) SELECT rowid, comment_id FROM comment_search;
+
+DROP TRIGGER IF EXISTS posts_search_insert;
+DROP TRIGGER IF EXISTS posts_search_tombstone;
+DROP TRIGGER IF EXISTS posts_search_delete;
+DROP TRIGGER IF EXISTS posts_search_rename;
+DROP TRIGGER IF EXISTS comments_search_insert;
+DROP TRIGGER IF EXISTS comments_search_delete;
+DROP TRIGGER IF EXISTS comments_search_rename;
+
+CREATE TRIGGER posts_search_insert AFTER INSERT ON posts
+WHEN new.caption IS NOT NULL AND new.deleted_at IS NULL
+BEGIN
+    INSERT INTO post_search_docs (post_id) VALUES (new.id);
+    INSERT INTO post_search (rowid, caption, post_id)
+    SELECT doc, new.caption, new.id FROM post_search_docs WHERE post_id = new.id;
+END;
+
+-- A tombstoned post and its comments leave the index at once, before PostPurger deletes the rows.
+CREATE TRIGGER posts_search_tombstone AFTER UPDATE OF deleted_at ON posts
+WHEN old.deleted_at IS NULL AND new.deleted_at IS NOT NULL
+BEGIN
+    DELETE FROM post_search WHERE rowid = (SELECT doc FROM post_search_docs WHERE post_id = old.id);
+    DELETE FROM post_search_docs WHERE post_id = old.id;
+    DELETE FROM comment_search WHERE rowid IN (
+        SELECT d.doc FROM comments c JOIN comment_search_docs d ON d.comment_id = c.id WHERE c.post_id = old.id);
+    DELETE FROM comment_search_docs WHERE comment_id IN (SELECT id FROM comments WHERE post_id = old.id);
+END;
+
+CREATE TRIGGER posts_search_delete AFTER DELETE ON posts
+BEGIN
+    DELETE FROM post_search WHERE rowid = (SELECT doc FROM post_search_docs WHERE post_id = old.id);
+    DELETE FROM post_search_docs WHERE post_id = old.id;
+END;
+
+CREATE TRIGGER posts_search_rename AFTER UPDATE OF id ON posts
+BEGIN
+    UPDATE post_search SET post_id = new.id WHERE rowid = (SELECT doc FROM post_search_docs WHERE post_id = old.id);
+    UPDATE post_search_docs SET post_id = new.id WHERE post_id = old.id;
+END;
+
+CREATE TRIGGER comments_search_insert AFTER INSERT ON comments
+BEGIN
+    INSERT INTO comment_search_docs (comment_id) VALUES (new.id);
+    INSERT INTO comment_search (rowid, text, comment_id)
+    SELECT doc, new.text, new.id FROM comment_search_docs WHERE comment_id = new.id;
+END;
+
+CREATE TRIGGER comments_search_delete AFTER DELETE ON comments
+BEGIN
+    DELETE FROM comment_search WHERE rowid = (SELECT doc FROM comment_search_docs WHERE comment_id = old.id);
+    DELETE FROM comment_search_docs WHERE comment_id = old.id;
+END;
+
+CREATE TRIGGER comments_search_rename AFTER UPDATE OF id ON comments
+BEGIN
+    UPDATE comment_search SET comment_id = new.id WHERE rowid = (SELECT doc FROM comment_search_docs WHERE comment_id = old.id);
+    UPDATE comment_search_docs SET comment_id = new.id WHERE comment_id = old.id;
+END;
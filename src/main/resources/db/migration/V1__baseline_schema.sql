@@ -0,0 +1,54 @@
+-- Schema as Hibernate created it before migrations were introduced. Existing databases are
+-- baselined at version 0 (spring.flyway.baseline-version), so this still runs on them: every
+-- statement is IF NOT EXISTS and only creates the tables they are missing, such as follows and
+-- timelines on databases older than the home timeline.
+
+CREATE TABLE IF NOT EXISTS users (
+    id              VARCHAR(255) NOT NULL PRIMARY KEY,
+    username        VARCHAR(50)  NOT NULL UNIQUE,
+    email           VARCHAR(100) NOT NULL UNIQUE,
+    password_hash   VARCHAR(255) NOT NULL,
+    full_name       VARCHAR(100) NOT NULL,
+    avatar_url      VARCHAR(500),
+    followers_count INTEGER DEFAULT 0 NOT NULL,
+    created_at      TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS posts (
+    id             VARCHAR(255) NOT NULL PRIMARY KEY,
+    author_id      VARCHAR(255) NOT NULL REFERENCES users (id),
+    image_url      VARCHAR(500) NOT NULL,
+    caption        TEXT,
+    likes_count    INTEGER DEFAULT 0 NOT NULL,
+    comments_count INTEGER DEFAULT 0 NOT NULL,
+    created_at     TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id         VARCHAR(255) NOT NULL PRIMARY KEY,
+    post_id    VARCHAR(255) NOT NULL REFERENCES posts (id),
+    author_id  VARCHAR(255) NOT NULL REFERENCES users (id),
+    text       TEXT         NOT NULL,
+    created_at TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+    user_id    VARCHAR(255) NOT NULL REFERENCES users (id),
+    post_id    VARCHAR(255) NOT NULL REFERENCES posts (id),
+    created_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (user_id, post_id)
+);
+
+CREATE TABLE IF NOT EXISTS follows (
+    follower_id VARCHAR(255) NOT NULL REFERENCES users (id),
+    followee_id VARCHAR(255) NOT NULL REFERENCES users (id),
+    created_at  TIMESTAMP    NOT NULL,
+    PRIMARY KEY (follower_id, followee_id)
+);
+
+CREATE TABLE IF NOT EXISTS timelines (
+    user_id         VARCHAR(255) NOT NULL,
+    post_id         VARCHAR(255) NOT NULL,
+    post_created_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (user_id, post_id)
+);
@@ -0,0 +1,22 @@
+-- Ids are time-ordered, so (x, id) indexes serve both "by x, newest first" and keyset pages.
+
+-- Posts by author: celebrity pulls, follow backfill, counts and unfollow cleanup.
+CREATE INDEX IF NOT EXISTS idx_posts_author_id_id ON posts (author_id, id);
+
+-- Comment threads and comment counts.
+CREATE INDEX IF NOT EXISTS idx_comments_post_id_id ON comments (post_id, id);
+CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments (author_id);
+
+-- Like counts per post; (user_id, post_id) is already the primary key.
+CREATE INDEX IF NOT EXISTS idx_likes_post_id ON likes (post_id);
+
+-- Fan-out walks a user's followers in id order; covering, so the table is never read.
+CREATE INDEX IF NOT EXISTS idx_follows_followee_id_follower_id ON follows (followee_id, follower_id);
+
+-- Removing a deleted post from every timeline.
+CREATE INDEX IF NOT EXISTS idx_timelines_post_id ON timelines (post_id);
+
+-- Superseded by the composite indexes above; created by the id migration on older databases.
+DROP INDEX IF EXISTS idx_posts_author_id;
+DROP INDEX IF EXISTS idx_comments_post_id;
+DROP INDEX IF EXISTS idx_follows_followee_id;
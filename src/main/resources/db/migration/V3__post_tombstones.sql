@@ -0,0 +1,5 @@
+-- Deleted posts are tombstoned first and purged in the background by PostPurger.
+ALTER TABLE posts ADD COLUMN deleted_at TIMESTAMP;
+
+-- Only tombstones are indexed, so the purger finds them without scanning live posts.
+CREATE INDEX IF NOT EXISTS idx_posts_deleted_at ON posts (deleted_at) WHERE deleted_at IS NOT NULL;
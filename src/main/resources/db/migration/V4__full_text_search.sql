@@ -0,0 +1,61 @@
+-- Full-text indexes over captions and comment text. Each document's rowid is the rowid of its source
+-- row, so the triggers below update or remove it with a rowid lookup. The id is stored alongside for
+-- hydration, unindexed.
+CREATE VIRTUAL TABLE IF NOT EXISTS post_search USING fts5(
+    caption,
+    post_id UNINDEXED,
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE VIRTUAL TABLE IF NOT EXISTS comment_search USING fts5(
+    text,
+    comment_id UNINDEXED,
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+INSERT INTO post_search (rowid, caption, post_id)
+SELECT rowid, caption, id FROM posts WHERE deleted_at IS NULL AND caption IS NOT NULL;
+
+INSERT INTO comment_search (rowid, text, comment_id)
+SELECT c.rowid, c.text, c.id FROM comments c JOIN posts p ON p.id = c.post_id WHERE p.deleted_at IS NULL;
+
+-- Triggers keep the indexes in the same transaction as every write, including the purger's chunked
+-- deletes and the id migration's renames.
+CREATE TRIGGER IF NOT EXISTS posts_search_insert AFTER INSERT ON posts
+WHEN new.caption IS NOT NULL AND new.deleted_at IS NULL
+BEGIN
+    INSERT INTO post_search (rowid, caption, post_id) VALUES (new.rowid, new.caption, new.id);
+END;
+
+-- A tombstoned post and its comments leave the index at once, before PostPurger deletes the rows.
+CREATE TRIGGER IF NOT EXISTS posts_search_tombstone AFTER UPDATE OF deleted_at ON posts
+WHEN old.deleted_at IS NULL AND new.deleted_at IS NOT NULL
+BEGIN
+    DELETE FROM post_search WHERE rowid = old.rowid;
+    DELETE FROM comment_search WHERE rowid IN (SELECT rowid FROM comments WHERE post_id = old.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS posts_search_delete AFTER DELETE ON posts
+BEGIN
+    DELETE FROM post_search WHERE rowid = old.rowid;
+END;
+
+CREATE TRIGGER IF NOT EXISTS posts_search_rename AFTER UPDATE OF id ON posts
+BEGIN
+    UPDATE post_search SET post_id = new.id WHERE rowid = old.rowid;
+END;
+
+CREATE TRIGGER IF NOT EXISTS comments_search_insert AFTER INSERT ON comments
+BEGIN
+    INSERT INTO comment_search (rowid, text, comment_id) VALUES (new.rowid, new.text, new.id);
+END;
+
+CREATE TRIGGER IF NOT EXISTS comments_search_delete AFTER DELETE ON comments
+BEGIN
+    DELETE FROM comment_search WHERE rowid = old.rowid;
+END;
+
+CREATE TRIGGER IF NOT EXISTS comments_search_rename AFTER UPDATE OF id ON comments
+BEGIN
+    UPDATE comment_search SET comment_id = new.id WHERE rowid = old.rowid;
+END;
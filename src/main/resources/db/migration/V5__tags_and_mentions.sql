@@ -0,0 +1,21 @@
+-- Inverted indexes filled from captions and comments at write time (TagIndexer). Both are keyed for
+-- newest-first pages: post and comment ids are time-ordered.
+CREATE TABLE IF NOT EXISTS post_tags (
+    tag             VARCHAR(100) NOT NULL,
+    post_id         VARCHAR(255) NOT NULL REFERENCES posts (id),
+    post_created_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (tag, post_id)
+) WITHOUT ROWID;
+
+-- source_id is the post or comment that mentions the user; post_id is the post it belongs to.
+CREATE TABLE IF NOT EXISTS mentions (
+    user_id    VARCHAR(255) NOT NULL REFERENCES users (id),
+    source_id  VARCHAR(255) NOT NULL,
+    post_id    VARCHAR(255) NOT NULL REFERENCES posts (id),
+    created_at TIMESTAMP    NOT NULL,
+    PRIMARY KEY (user_id, source_id)
+) WITHOUT ROWID;
+
+-- PostPurger drains both by post.
+CREATE INDEX IF NOT EXISTS idx_post_tags_post_id ON post_tags (post_id);
+CREATE INDEX IF NOT EXISTS idx_mentions_post_id ON mentions (post_id);
@@ -0,0 +1,9 @@
+-- Impression totals shown on posts, written by ImpressionTracker flushes.
+ALTER TABLE posts ADD COLUMN views_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE posts ADD COLUMN unique_viewers INTEGER DEFAULT 0 NOT NULL;
+
+-- One HyperLogLog sketch of a post's distinct viewers (see HyperLogLog.toBytes), at most ~1 KiB.
+CREATE TABLE IF NOT EXISTS post_impressions (
+    post_id VARCHAR(255) NOT NULL PRIMARY KEY REFERENCES posts (id),
+    sketch  BLOB         NOT NULL
+);
@@ -0,0 +1,20 @@
+-- Databases from before home timelines have follows and posts but no timeline rows, so every feed
+-- started out empty. Gives each reader what a new follow gives them: the latest 50 visible posts
+-- (timeline.follow-backfill-size) of everyone they follow, and of themselves. Authors with 10000 or
+-- more followers (timeline.fanout.celebrity-threshold) are pulled in when a timeline is read, so only
+-- their own timelines get their posts. On databases that already fan out this only fills gaps.
+INSERT OR IGNORE INTO timelines (user_id, post_id, post_created_at)
+SELECT readers.user_id, recent.id, recent.created_at
+FROM (
+    SELECT follower_id AS user_id, followee_id AS author_id FROM follows
+    UNION
+    SELECT id, id FROM users
+) readers
+JOIN (
+    SELECT id, author_id, created_at,
+           ROW_NUMBER() OVER (PARTITION BY author_id ORDER BY id DESC) AS position
+    FROM posts
+    WHERE deleted_at IS NULL
+) recent ON recent.author_id = readers.author_id AND recent.position <= 50
+WHERE readers.user_id = readers.author_id
+   OR (SELECT COUNT(*) FROM follows f WHERE f.followee_id = readers.author_id) < 10000;
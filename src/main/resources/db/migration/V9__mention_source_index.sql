@@ -0,0 +1,2 @@
+-- TimeOrderedIdMigration renames post and comment ids in mentions.source_id as well.
+CREATE INDEX IF NOT EXISTS idx_mentions_source_id ON mentions (source_id);
@@ -0,0 +1,52 @@
+package com.example.instagram;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// A throwaway SQLite file for a @SpringBootTest class, migrated by Flyway at startup. Background jobs
+// that would write to it during the test are pushed out of the way.
+public final class TestDatabase {
+
+    private final Path file;
+
+    private TestDatabase(Path file) {
+        this.file = file;
+    }
+
+    public static TestDatabase create() {
+        try {
+            return new TestDatabase(Files.createTempFile("instagram-test-", ".db"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:sqlite:" + file + "?journal_mode=WAL&synchronous=NORMAL&busy_timeout=5000");
+        registry.add("ids.migration.enabled", () -> "false");
+        registry.add("posts.purge.initial-delay-ms", () -> "86400000");
+        registry.add("counters.reconcile.initial-delay-ms", () -> "86400000");
+        registry.add("trending.checkpoint-file", () -> file + ".trending");
+        registry.add("media.storage-dir", () -> file + ".media");
+    }
+
+    public void delete() throws IOException {
+        for (String suffix : List.of("", "-wal", "-shm", ".trending")) {
+            Files.deleteIfExists(Path.of(file + suffix));
+        }
+        Path media = Path.of(file + ".media");
+        if (Files.isDirectory(media)) {
+            try (var files = Files.walk(media)) {
+                for (Path path : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
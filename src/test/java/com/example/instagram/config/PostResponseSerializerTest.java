@@ -0,0 +1,75 @@
+package com.example.instagram.config;
+
+import com.example.instagram.TestDatabase;
+import com.example.instagram.dto.request.CreatePostRequest;
+import com.example.instagram.dto.response.PostResponse;
+import com.example.instagram.model.User;
+import com.example.instagram.repository.UserRepository;
+import com.example.instagram.service.PostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The fragment serializer must write exactly what Jackson's bean serializer would, including for a
+// post whose fragment was cached from the response that created it.
+@SpringBootTest
+class PostResponseSerializerTest {
+
+    private static final TestDatabase DATABASE = TestDatabase.create();
+
+    // Configured like the application's mapper, without the fragment module.
+    private static final ObjectMapper BEAN_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        DATABASE.register(registry);
+    }
+
+    @AfterAll
+    static void deleteDatabase() throws IOException {
+        DATABASE.delete();
+    }
+
+    @Test
+    void writesTheSameBytesAsTheBeanSerializerForAPostReadBack() throws Exception {
+        User author = userRepository.save(User.builder()
+                .username("fragments")
+                .email("fragments@example.com")
+                .passwordHash("hash")
+                .fullName("Fragment \"Author\"")
+                .avatarUrl("https://example.com/avatar.png")
+                .build());
+
+        PostResponse created = postService.createPost(
+                new CreatePostRequest("https://example.com/image.jpg", "Caption with \"quotes\" and ünïcode"), author);
+        String createdJson = objectMapper.writeValueAsString(created);
+
+        PostResponse read = postService.getPost(created.getId(), author);
+        String readJson = objectMapper.writeValueAsString(read);
+
+        assertThat(readJson).isEqualTo(BEAN_MAPPER.writeValueAsString(read));
+        assertThat(createdJson).isEqualTo(BEAN_MAPPER.writeValueAsString(created));
+        assertThat(read.getCreatedAt()).isEqualTo(created.getCreatedAt());
+    }
+}
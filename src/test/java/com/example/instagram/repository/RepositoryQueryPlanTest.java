@@ -0,0 +1,195 @@
+package com.example.instagram.repository;
+
+import com.example.instagram.TestDatabase;
+import com.example.instagram.monitoring.QueryPlanAudit;
+import com.example.instagram.monitoring.QueryPlanExplainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs every repository query against a database built by the Flyway migrations and fails if SQLite
+// plans any of them as a scan of a whole table. A new query, or a migration that drops an index, has
+// to come with the index that serves it.
+@SpringBootTest
+@Transactional
+class RepositoryQueryPlanTest {
+
+    private static final TestDatabase DATABASE = TestDatabase.create();
+    private static final String ID = "01J0000000000000000000000A";
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private QueryPlanAudit queryPlanAudit;
+    @Autowired
+    private QueryPlanExplainer queryPlanExplainer;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private FollowRepository followRepository;
+    @Autowired
+    private TimelineRepository timelineRepository;
+    @Autowired
+    private PostTagRepository postTagRepository;
+    @Autowired
+    private MentionRepository mentionRepository;
+    @Autowired
+    private PostImpressionRepository postImpressionRepository;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        DATABASE.register(registry);
+    }
+
+    @AfterAll
+    static void deleteDatabase() throws IOException {
+        DATABASE.delete();
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            userRepository.findById(ID);
+            userRepository.findByEmail("someone@example.com");
+            userRepository.findByUsername("someone");
+            userRepository.existsByEmail("someone@example.com");
+            userRepository.existsByUsername("someone");
+            userRepository.updatePasswordHash(ID, "hash");
+            userRepository.findFollowersCountById(ID);
+            userRepository.incrementFollowersCount(ID, 1);
+        });
+    }
+
+    @Test
+    void postQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            postRepository.findVisibleById(ID);
+            postRepository.existsByIdAndDeletedAtIsNull(ID);
+            postRepository.findAllWithAuthorByIdIn(List.of(ID));
+            postRepository.findLatestByAuthorIds(List.of(ID), PAGE);
+            postRepository.findBeforeByAuthorIds(List.of(ID), ID, PAGE);
+            postRepository.countByAuthorIdInAndDeletedAtIsNull(List.of(ID));
+            postRepository.markDeleted(ID, Instant.now());
+            postRepository.findDeletedIds(PAGE);
+            postRepository.purgeDeleted(ID);
+            postRepository.searchCaptions("\"word\"", 20);
+            postRepository.searchCaptionsAfter("\"word\"", 0L, 1, 20);
+            postRepository.incrementLikesCount(ID, 1);
+            postRepository.incrementCommentsCount(ID, 1);
+            postRepository.findCaptionsAfter("", PAGE);
+            postRepository.addImpressions(ID, 1, 1);
+            postRepository.findIdsAfter("", PAGE);
+            postRepository.reconcileCounters(List.of(ID));
+        });
+    }
+
+    @Test
+    void commentQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            commentRepository.findByPostIdOrderByIdDesc(ID, PAGE);
+            commentRepository.findLatestByPostId(ID, PAGE);
+            commentRepository.findByPostIdBefore(ID, ID, PAGE);
+            commentRepository.countByPostId(ID);
+            commentRepository.findAllWithAuthorByIdIn(List.of(ID));
+            commentRepository.searchText("\"word\"", 20);
+            commentRepository.searchTextAfter("\"word\"", 0L, 1, 20);
+            commentRepository.findTextAfter("", PAGE);
+            try (var rows = commentRepository.streamByPostId(ID)) {
+                rows.forEach(row -> { });
+            }
+            commentRepository.deleteChunkByPostId(ID, 100);
+        });
+    }
+
+    @Test
+    void likeAndFollowQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            likeRepository.countByPostId(ID);
+            likeRepository.insertIfAbsent(ID, ID, Instant.now());
+            likeRepository.deleteByUserIdAndPostId(ID, ID);
+            likeRepository.findLikedPostIds(ID, List.of(ID));
+            likeRepository.deleteChunkByPostId(ID, 100);
+            followRepository.findFollowerIdsAfter(ID, "", PAGE);
+            followRepository.findFolloweeIdsWithFollowersAtLeast(ID, 10_000);
+        });
+    }
+
+    @Test
+    void timelineQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            timelineRepository.findLatest(ID, PAGE);
+            timelineRepository.findBefore(ID, ID, PAGE);
+            timelineRepository.countByIdUserId(ID);
+            timelineRepository.fanOut(ID, List.of(ID));
+            timelineRepository.backfill(ID, ID, 50);
+            timelineRepository.deleteByUserIdAndAuthorId(ID, ID);
+            timelineRepository.deleteChunkByPostId(ID, 100);
+        });
+    }
+
+    @Test
+    void tagMentionAndImpressionQueriesUseIndexes() {
+        assertNoFullScans(() -> {
+            postTagRepository.findLatest("tag", PAGE);
+            postTagRepository.findBefore("tag", ID, PAGE);
+            postTagRepository.insertForPost(ID, "[\"tag\"]");
+            postTagRepository.insertForComment(ID, "[\"tag\"]");
+            postTagRepository.deleteChunkByPostId(ID, 100);
+            mentionRepository.findLatest(ID, PAGE);
+            mentionRepository.findBefore(ID, ID, PAGE);
+            mentionRepository.insertForPost(ID, List.of("someone"));
+            mentionRepository.insertForComment(ID, List.of("someone"));
+            mentionRepository.deleteChunkByPostId(ID, 100);
+            postImpressionRepository.findAllById(List.of(ID));
+            postImpressionRepository.deleteByPostId(ID);
+        });
+    }
+
+    // Checks every statement Hibernate prepared while the queries ran. Statements already seen by an
+    // earlier test were checked there.
+    private void assertNoFullScans(Runnable queries) {
+        Set<String> before = queryPlanAudit.statements();
+        queries.run();
+
+        List<String> statements = queryPlanAudit.statements().stream()
+                .filter(sql -> !before.contains(sql))
+                .toList();
+        List<String> fullScans = new ArrayList<>();
+        for (String sql : statements) {
+            List<String> plan = explain(sql);
+            if (plan.stream().anyMatch(QueryPlanExplainer::isFullTableScan)) {
+                fullScans.add(sql + "\n" + String.join("\n", plan));
+            }
+        }
+        assertThat(fullScans).as("statements planned as full table scans").isEmpty();
+    }
+
+    private List<String> explain(String sql) {
+        try {
+            return queryPlanExplainer.explain(sql);
+        } catch (SQLException e) {
+            throw new AssertionError("Could not explain " + sql, e);
+        }
+    }
+}
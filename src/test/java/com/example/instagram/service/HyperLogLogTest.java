@@ -0,0 +1,127 @@
+package com.example.instagram.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    private static final int TRIALS = 20;
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+    // Bounds leave room for the sampling noise of TRIALS trials.
+    private static final double MAX_RMS_ERROR = 1.5 * STANDARD_ERROR;
+    private static final double MAX_ERROR = 4 * STANDARD_ERROR;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000, 100_000, 1_000_000})
+    void estimatesStayWithinErrorBounds(int cardinality) {
+        double squaredErrors = 0;
+        double maxError = 0;
+        for (int trial = 0; trial < TRIALS; trial++) {
+            HyperLogLog sketch = filled(cardinality, "viewer-" + cardinality + "-" + trial + "-");
+            double error = Math.abs(sketch.estimate() - cardinality) / (double) cardinality;
+            squaredErrors += error * error;
+            maxError = Math.max(maxError, error);
+        }
+
+        assertThat(Math.sqrt(squaredErrors / TRIALS)).as("RMS relative error").isLessThanOrEqualTo(MAX_RMS_ERROR);
+        assertThat(maxError).as("worst relative error").isLessThanOrEqualTo(MAX_ERROR);
+    }
+
+    @Test
+    void offeringAValueAgainChangesNothing() {
+        HyperLogLog sketch = filled(10_000, "viewer-");
+        byte[] before = sketch.toBytes();
+
+        for (int i = 0; i < 10_000; i += 7) {
+            sketch.offer("viewer-" + i);
+        }
+
+        assertThat(sketch.toBytes()).isEqualTo(before);
+    }
+
+    @Test
+    void mergingHalvesGivesTheSketchOfTheWhole() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog even = new HyperLogLog();
+        HyperLogLog odd = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            String viewerId = "viewer-" + i;
+            all.offer(viewerId);
+            (i % 2 == 0 ? even : odd).offer(viewerId);
+        }
+
+        even.merge(odd);
+
+        assertThat(even.toBytes()).isEqualTo(all.toBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 100_000})
+    void serializedSketchReadsBackUnchanged(int cardinality) {
+        HyperLogLog sketch = filled(cardinality, "viewer-");
+        byte[] bytes = sketch.toBytes();
+
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+        assertThat(restored.toBytes()).isEqualTo(bytes);
+    }
+
+    @Test
+    void fewRegistersSerializeSparsely() {
+        byte[] sparse = filled(10, "viewer-").toBytes();
+        assertThat(sparse[0]).isEqualTo((byte) 1);
+        assertThat(sparse.length).isLessThanOrEqualTo(2 + 10 * 3);
+        assertThat(filled(100_000, "viewer-").toBytes()).hasSize(2 + HyperLogLog.REGISTERS);
+    }
+
+    @Test
+    void rejectsCorruptSketches() {
+        byte[] sparse = filled(10, "viewer-").toBytes();
+        byte[] dense = filled(100_000, "viewer-").toBytes();
+
+        assertCorrupt(new byte[0]);
+        assertCorrupt(new byte[] {1});
+        assertCorrupt(withByte(sparse, 0, (byte) 7));
+        assertCorrupt(withByte(sparse, 1, (byte) (HyperLogLog.PRECISION + 1)));
+        assertCorrupt(Arrays.copyOf(sparse, sparse.length - 1));
+        assertCorrupt(Arrays.copyOf(dense, dense.length - 1));
+        assertCorrupt(Arrays.copyOf(dense, dense.length + 1));
+        assertCorrupt(withByte(dense, 2, (byte) -1));
+
+        byte[] outOfRange = ByteBuffer.allocate(5).put((byte) 1).put((byte) HyperLogLog.PRECISION)
+                .putShort((short) HyperLogLog.REGISTERS).put((byte) 1).array();
+        assertCorrupt(outOfRange);
+        byte[] maxIndex = ByteBuffer.allocate(5).put((byte) 1).put((byte) HyperLogLog.PRECISION)
+                .putShort((short) -1).put((byte) 1).array();
+        assertCorrupt(maxIndex);
+        byte[] badRank = ByteBuffer.allocate(5).put((byte) 1).put((byte) HyperLogLog.PRECISION)
+                .putShort((short) 0).put((byte) 100).array();
+        assertCorrupt(badRank);
+    }
+
+    private static HyperLogLog filled(int cardinality, String prefix) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < cardinality; i++) {
+            sketch.offer(prefix + i);
+        }
+        return sketch;
+    }
+
+    private static byte[] withByte(byte[] bytes, int index, byte value) {
+        byte[] copy = bytes.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    private static void assertCorrupt(byte[] bytes) {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(bytes)).isInstanceOf(IllegalArgumentException.class);
+    }
+}